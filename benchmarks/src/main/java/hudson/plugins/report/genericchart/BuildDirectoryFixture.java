@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+Synthetic build directories: each build has filesPerBuild properties files,
+depth directories deep, each with keysPerFile keys hidden in garbage lines
+up to fileSize bytes. The wanted keys are in the middle of the files. Every
+build gets also a log and build.xml, like the real ones.
+ */
+public class BuildDirectoryFixture {
+
+    static final String GLOB = "report-*.properties";
+
+    private final Path root;
+    private final List<Path> builds;
+
+    private BuildDirectoryFixture(Path root, List<Path> builds) {
+        this.root = root;
+        this.builds = builds;
+    }
+
+    public static BuildDirectoryFixture create(int buildCount, int filesPerBuild, int keysPerFile, int fileSize, int depth) {
+        try {
+            Path root = Files.createTempDirectory("generic-chart-benchmark");
+            Random random = new Random(buildCount * 31L + filesPerBuild);
+            List<Path> builds = new ArrayList<>(buildCount);
+            for (int b = 1; b <= buildCount; b++) {
+                Path build = Files.createDirectories(root.resolve("builds").resolve(Integer.toString(b)));
+                Files.write(build.resolve("build.xml"), "<build/>".getBytes(StandardCharsets.UTF_8));
+                Files.write(build.resolve("log"), garbage(random, fileSize).getBytes(StandardCharsets.UTF_8));
+                Path dir = build.resolve("archive");
+                for (int d = 0; d < depth; d++) {
+                    dir = dir.resolve("level" + d);
+                }
+                Files.createDirectories(dir);
+                for (int f = 0; f < filesPerBuild; f++) {
+                    Files.write(dir.resolve("report-" + f + ".properties"), report(random, f, keysPerFile, fileSize).getBytes(StandardCharsets.UTF_8));
+                }
+                builds.add(build);
+            }
+            return new BuildDirectoryFixture(root, builds);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /*
+    Key of the k-th value in the f-th file
+     */
+    static String key(int file, int k) {
+        return "file" + file + ".result.metric-" + k;
+    }
+
+    private static String report(Random random, int file, int keysPerFile, int fileSize) {
+        StringBuilder sb = new StringBuilder(fileSize + keysPerFile * 40);
+        sb.append(garbage(random, fileSize / 2));
+        for (int k = 0; k < keysPerFile; k++) {
+            sb.append(key(file, k)).append(" = ").append(random.nextInt(100000)).append('\n');
+        }
+        sb.append(garbage(random, fileSize - sb.length()));
+        return sb.toString();
+    }
+
+    private static String garbage(Random random, int size) {
+        StringBuilder sb = new StringBuilder(Math.max(size, 0));
+        while (sb.length() < size) {
+            sb.append("garbage line ").append(random.nextLong()).append(" without any delimiter\n");
+        }
+        return sb.toString();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /*
+    Build directories, oldest first
+     */
+    public List<Path> getBuilds() {
+        return builds;
+    }
+
+    public void delete() {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
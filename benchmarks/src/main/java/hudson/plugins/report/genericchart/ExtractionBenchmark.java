@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Reading values from one build directory: the walk with the scan of all matching
+files, and the scan of one file alone
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    @Param({"1", "10"})
+    public int filesPerBuild;
+
+    @Param({"10", "1000"})
+    public int keysPerFile;
+
+    @Param({"4096", "1048576"})
+    public int fileSize;
+
+    @Param({"0", "5"})
+    public int depth;
+
+    @Param({"1", "5"})
+    public int wantedKeys;
+
+    private BuildDirectoryFixture fixture;
+    private Path build;
+    private List<ValueKey> keys;
+    private ReportValuesExtractor extractor;
+    private byte[] file;
+    private List<String> fileKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = BuildDirectoryFixture.create(1, filesPerBuild, keysPerFile, fileSize, depth);
+        build = fixture.getBuilds().get(0);
+        keys = new ArrayList<>(wantedKeys);
+        fileKeys = new ArrayList<>(wantedKeys);
+        for (int i = 0; i < wantedKeys; i++) {
+            //spread over the files, the last file is the worst case
+            int f = (filesPerBuild - 1) * (i + 1) / wantedKeys;
+            int k = (keysPerFile - 1) * (i + 1) / wantedKeys;
+            keys.add(new ValueKey(BuildDirectoryFixture.GLOB, BuildDirectoryFixture.key(f, k)));
+            fileKeys.add(BuildDirectoryFixture.key(0, k));
+        }
+        extractor = new ReportValuesExtractor(new BuildDirectoryWalker(null));
+        Path dir = build.resolve("archive");
+        for (int d = 0; d < depth; d++) {
+            dir = dir.resolve("level" + d);
+        }
+        file = Files.readAllBytes(dir.resolve("report-0.properties"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.delete();
+    }
+
+    @Benchmark
+    public Map<ValueKey, String> findValues() {
+        return extractor.findValues(build, keys);
+    }
+
+    @Benchmark
+    public Map<String, String> scanFile() throws IOException {
+        Map<String, String> result = new HashMap<>();
+        new PropertiesScanner(fileKeys).scan(new ByteArrayInputStream(file), result);
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+Blacklist and whitelist matching of build names, as done for every observed build
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"1000"})
+    public int buildCount;
+
+    @Param({"1", "10"})
+    public int patterns;
+
+    private String[] names;
+    private String list;
+    private BuildNameFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        names = new String[buildCount];
+        for (int i = 0; i < buildCount; i++) {
+            names[i] = ParserBenchmark.buildName(i + 1);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int p = 0; p < patterns; p++) {
+            sb.append(".*jdk-").append(8 + p).append("\\.0\\.").append(p * 7).append(".* ");
+        }
+        list = sb.toString();
+        filter = BuildNameFilter.compile(list);
+    }
+
+    @Benchmark
+    public void matchCompiled(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(filter.matches(name));
+        }
+    }
+
+    /*
+    What it cost before the filters were compiled once per chart
+     */
+    @Benchmark
+    public void compileAndMatch(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(BuildNameFilter.compile(list).matches(name));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.util.RunList;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+Computing charts of a job with mocked builds over the synthetic build directories.
+Every fifth build failed, build names carry a jdk version to black/whitelist by.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"100", "1000"})
+    public int buildCount;
+
+    @Param({"3"})
+    public int filesPerBuild;
+
+    @Param({"100"})
+    public int keysPerFile;
+
+    @Param({"16384"})
+    public int fileSize;
+
+    @Param({"2"})
+    public int depth;
+
+    @Param({"1", "5"})
+    public int charts;
+
+    @Param({"10", "0"})
+    public int limit;
+
+    @Param({"none", "blacklist", "whitelist"})
+    public String filter;
+
+    private BuildDirectoryFixture fixture;
+    private Job<?, ?> job;
+    private List<ChartModel> models;
+    private PropertiesParser parser;
+
+    static String buildName(int number) {
+        return "#" + number + " jdk-" + (8 + number % 10) + ".0." + (number % 50);
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() {
+        fixture = BuildDirectoryFixture.create(buildCount, filesPerBuild, keysPerFile, fileSize, depth);
+        Job mockedJob = mock(Job.class);
+        List<Run> runs = new ArrayList<>(buildCount);
+        List<Path> builds = fixture.getBuilds();
+        for (int i = 0; i < builds.size(); i++) {
+            int number = i + 1;
+            Run run = mock(Run.class);
+            when(run.getNumber()).thenReturn(number);
+            when(run.getDisplayName()).thenReturn(buildName(number));
+            when(run.getResult()).thenReturn(number % 5 == 0 ? Result.FAILURE : Result.SUCCESS);
+            when(run.getRootDir()).thenReturn(builds.get(i).toFile());
+            when(run.getParent()).thenReturn(mockedJob);
+            runs.add(run);
+        }
+        //newest first, as the job gives them
+        Collections.reverse(runs);
+        when(mockedJob.getBuilds()).thenAnswer(invocation -> RunList.fromRuns(runs));
+        when(mockedJob.getRootDir()).thenReturn(fixture.getRoot().toFile());
+        job = mockedJob;
+        models = new ArrayList<>(charts);
+        for (int c = 0; c < charts; c++) {
+            ChartModel model = new ChartModel("chart" + c, BuildDirectoryFixture.GLOB,
+                    BuildDirectoryFixture.key(c % filesPerBuild, c * 7 % keysPerFile), limit, "#000000", 0);
+            if ("blacklist".equals(filter)) {
+                model.setResultBlackList(".*jdk-8.* .*jdk-9\\.0\\.1.*");
+            } else if ("whitelist".equals(filter)) {
+                model.setResultWhiteList(".*jdk-11.*");
+                model.setRangeAroundWlist(2);
+            }
+            models.add(model);
+        }
+        parser = new PropertiesParser(new ReportValuesExtractor(new BuildDirectoryWalker(null)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.delete();
+    }
+
+    @Benchmark
+    public List<ChartPointsWithBlacklist> getReportPointsWithBlacklist() {
+        return parser.getReportPointsWithBlacklist(job, models);
+    }
+}
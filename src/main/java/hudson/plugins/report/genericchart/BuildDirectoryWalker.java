@@ -0,0 +1,222 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/*
+Walks the build directory depth first, in the same order as Files.walk,
+but does not descend into directories which can not contain any of the
+searched files, or which are excluded, and stops once the visitor has all it needs.
+If enabled, zip and jar archives are walked as if they were directories
+of the same name, in the order of their entries.
+ */
+public class BuildDirectoryWalker {
+
+    private static final Logger LOGGER = Logger.getLogger(BuildDirectoryWalker.class.getName());
+
+    public interface ReportFileVisitor {
+
+        default void enteredDirectory(Path dir) {
+        }
+
+        /*
+        Called for each regular file (or archive entry) matching at least one
+        of the globs, returns false if the walk can stop
+         */
+        boolean visit(ReportFile file, List<ReportGlob> matching);
+
+        /*
+        Globs which are still searched for, the walk stops when empty
+         */
+        Collection<ReportGlob> getPendingGlobs();
+    }
+
+    private final List<PathMatcher> excludes;
+    private final boolean readArchives;
+
+    public BuildDirectoryWalker(String excludedDirectories) {
+        this(excludedDirectories, false);
+    }
+
+    public BuildDirectoryWalker(String excludedDirectories, boolean readArchives) {
+        this.excludes = compileExcludes(excludedDirectories);
+        this.readArchives = readArchives;
+    }
+
+    public static BuildDirectoryWalker fromConfiguration() {
+        return new BuildDirectoryWalker(GenericChartGlobalConfiguration.getExcludedDirectoriesOrDefault(),
+                GenericChartGlobalConfiguration.isReadArchivesOrDefault());
+    }
+
+    private static List<PathMatcher> compileExcludes(String excludedDirectories) {
+        if (excludedDirectories == null || excludedDirectories.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PathMatcher> result = new ArrayList<>();
+        for (String exclude : excludedDirectories.trim().split("\\s+")) {
+            result.add(FileSystems.getDefault().getPathMatcher("glob:" + exclude));
+        }
+        return result;
+    }
+
+    public void walk(Path root, ReportFileVisitor visitor) throws IOException {
+        List<String> directory = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(root)) {
+                    visitor.enteredDirectory(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+                Path relative = root.relativize(dir);
+                if (isExcluded(relative)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directory.add(dir.getFileName().toString());
+                for (ReportGlob glob : visitor.getPendingGlobs()) {
+                    if (glob.mayContain(directory)) {
+                        visitor.enteredDirectory(dir);
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+                directory.remove(directory.size() - 1);
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                if (!dir.equals(root)) {
+                    directory.remove(directory.size() - 1);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                Path relative = root.relativize(file);
+                List<ReportGlob> matching = matching(relative, directory.size() + 1);
+                boolean archive = readArchives && isArchive(file) && mayContain(directory, file);
+                if (matching.isEmpty() && !archive) {
+                    return FileVisitResult.CONTINUE;
+                }
+                //symbolic links are not followed in walk, but their target is read
+                if (!attrs.isRegularFile() && !(attrs.isSymbolicLink() && Files.isRegularFile(file))) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (!matching.isEmpty() && (!visitor.visit(ReportFile.of(file), matching) || visitor.getPendingGlobs().isEmpty())) {
+                    return FileVisitResult.TERMINATE;
+                }
+                if (archive && !walkArchive(file, relative)) {
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            private List<ReportGlob> matching(Path relative, int depth) {
+                List<ReportGlob> matching = new ArrayList<>(1);
+                for (ReportGlob glob : visitor.getPendingGlobs()) {
+                    if (glob.matches(relative, depth)) {
+                        matching.add(glob);
+                    }
+                }
+                return matching;
+            }
+
+            private boolean mayContain(List<String> directory, Path archive) {
+                List<String> asDirectory = new ArrayList<>(directory);
+                asDirectory.add(archive.getFileName().toString());
+                for (ReportGlob glob : visitor.getPendingGlobs()) {
+                    if (glob.mayContain(asDirectory)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            /*
+            Entries are read from the central directory, only the matching ones are inflated.
+            Returns false if the walk can stop.
+             */
+            private boolean walkArchive(Path file, Path relative) {
+                try (ZipFile zip = new ZipFile(file.toFile())) {
+                    Enumeration<? extends ZipEntry> entries = zip.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry entry = entries.nextElement();
+                        if (entry.isDirectory() || entry.getName().startsWith("/") || entry.getName().contains("..")) {
+                            continue;
+                        }
+                        Path entryPath = relative.resolve(entry.getName());
+                        List<ReportGlob> matching = matching(entryPath, entryPath.getNameCount());
+                        if (matching.isEmpty()) {
+                            continue;
+                        }
+                        if (!visitor.visit(ReportFile.entry(file, zip, entry), matching) || visitor.getPendingGlobs().isEmpty()) {
+                            return false;
+                        }
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    LOGGER.log(Level.WARNING, "Failed to read archive " + file, ex);
+                }
+                return true;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isArchive(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".zip") || name.endsWith(".jar");
+    }
+
+    private boolean isExcluded(Path relativeDirectory) {
+        for (PathMatcher exclude : excludes) {
+            if (exclude.matches(relativeDirectory) || exclude.matches(relativeDirectory.getFileName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/*
+Space separated list of regexes matched against build display name,
+compiled once, so the patterns are not compiled again for each build
+ */
+public final class BuildNameFilter {
+
+    static final BuildNameFilter EMPTY = new BuildNameFilter(Collections.emptyList());
+
+    private final List<Pattern> patterns;
+
+    private BuildNameFilter(List<Pattern> patterns) {
+        this.patterns = patterns;
+    }
+
+    public static BuildNameFilter compile(String list) {
+        if (list == null || list.trim().isEmpty()) {
+            return EMPTY;
+        }
+        String[] items = list.trim().split("\\s+");
+        List<Pattern> patterns = new ArrayList<>(items.length);
+        for (String item : items) {
+            try {
+                patterns.add(Pattern.compile(item));
+            } catch (PatternSyntaxException ex) {
+                //not a regex, so at least exact name is matched
+                patterns.add(Pattern.compile(Pattern.quote(item)));
+            }
+        }
+        return new BuildNameFilter(Collections.unmodifiableList(patterns));
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public boolean matches(String displayName) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(displayName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+/*
+JSON with chart data, served with ETag, so unchanged charts are answered by 304
+and can be kept by browser (or proxy) cache. The tag changes with every finished
+or deleted build of the job, with the chart configuration, and with restart.
+Partial data (computation over the time budget) is sent without the tag and
+must not be stored, so the next request gets the complete charts.
+ */
+final class ChartDataResponse {
+
+    private static final String STARTED = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private ChartDataResponse() {
+    }
+
+    static String etag(Job<?, ?> job, int configHash) {
+        Run<?, ?> last = job.getLastCompletedBuild();
+        return "\"" + (last == null ? 0 : last.getNumber())
+                + "-" + Integer.toHexString(configHash)
+                + "-" + STARTED
+                + "-" + ChartSeriesCache.getInstance().getGeneration(job) + "\"";
+    }
+
+    /*
+    Answers 304 if the client already has the data
+     */
+    static boolean isNotModified(StaplerRequest req, StaplerResponse rsp, String etag) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            rsp.setHeader("ETag", etag);
+            rsp.setHeader("Cache-Control", "no-cache");
+            rsp.setStatus(StaplerResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    static JSONObject series(ChartSeries series) {
+        JSONArray labels = new JSONArray();
+        JSONArray builds = new JSONArray();
+        JSONArray values = new JSONArray();
+        JSONArray colors = new JSONArray();
+        for (int i = 0; i < series.size(); i++) {
+            labels.add(series.getBuildNameShortened(i));
+            builds.add(series.getBuildNumber(i));
+            double value = series.getValue(i);
+            //json has no NaN nor Infinity, such points are left out of the line
+            values.add(Double.isNaN(value) || Double.isInfinite(value) ? null : value);
+            colors.add(series.getPointColor(i));
+        }
+        JSONObject json = new JSONObject();
+        json.put("labels", labels);
+        json.put("builds", builds);
+        json.put("values", values);
+        json.put("colors", colors);
+        return json;
+    }
+
+    /*
+    Series of the keys matched by key pattern on shared x axis - all the builds
+    of any of them, each key with null where it has no value. Values and colors
+    of the chart are those of the first key.
+     */
+    static JSONObject keySeries(Map<String, ChartSeries> keySeries) {
+        return aligned(keySeries, null);
+    }
+
+    /*
+    Series of several jobs on shared time axis - start times of the builds of
+    any of them, labeled by date. Each job has its url and the build number at
+    each of its points, so the point can be opened.
+     */
+    static JSONObject jobSeries(Map<String, ChartSeries> jobSeries, Map<String, String> jobUrls) {
+        return aligned(jobSeries, jobUrls);
+    }
+
+    private static JSONObject aligned(Map<String, ChartSeries> keySeries, Map<String, String> jobUrls) {
+        boolean byTime = jobUrls != null;
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        TreeMap<Long, String> labels = new TreeMap<>();
+        for (ChartSeries series : keySeries.values()) {
+            for (int i = 0; i < series.size(); i++) {
+                long x = byTime ? series.getTimestamp(i) : series.getBuildNumber(i);
+                if (!labels.containsKey(x)) {
+                    labels.put(x, byTime ? dateFormat.format(new Date(x)) : series.getBuildNameShortened(i));
+                }
+            }
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (Long x : labels.keySet()) {
+            positions.put(x, positions.size());
+        }
+        JSONArray keys = new JSONArray();
+        JSONObject json = null;
+        for (Map.Entry<String, ChartSeries> series : keySeries.entrySet()) {
+            Object[] values = new Object[labels.size()];
+            Object[] colors = new Object[labels.size()];
+            Object[] builds = new Object[labels.size()];
+            ChartSeries points = series.getValue();
+            for (int i = 0; i < points.size(); i++) {
+                int position = positions.get(byTime ? points.getTimestamp(i) : points.getBuildNumber(i));
+                double value = points.getValue(i);
+                values[position] = Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+                colors[position] = points.getPointColor(i);
+                builds[position] = points.getBuildNumber(i);
+            }
+            JSONObject key = new JSONObject();
+            key.put("key", series.getKey());
+            key.put("values", JSONArray.fromObject(values));
+            if (byTime) {
+                key.put("url", jobUrls.get(series.getKey()));
+                key.put("builds", JSONArray.fromObject(builds));
+            }
+            keys.add(key);
+            if (json == null) {
+                json = new JSONObject();
+                json.put("values", JSONArray.fromObject(values));
+                json.put("colors", JSONArray.fromObject(colors));
+                json.put("builds", byTime ? JSONArray.fromObject(builds) : JSONArray.fromObject(labels.keySet()));
+            }
+        }
+        if (json == null) {
+            json = new JSONObject();
+            json.put("values", new JSONArray());
+            json.put("colors", new JSONArray());
+            json.put("builds", new JSONArray());
+        }
+        json.put("labels", JSONArray.fromObject(labels.values()));
+        json.put("keys", keys);
+        return json;
+    }
+
+    /*
+    Series of a list view column, with the value the column is sorted by
+     */
+    static JSONObject column(ChartSeries series, boolean partial) {
+        JSONObject json = series(series);
+        json.put("partial", partial);
+        json.put("color", series.getColor());
+        json.put("latest", series.isEmpty() ? "0" : series.getValueAsString(series.size() - 1));
+        return json;
+    }
+
+    static void send(StaplerResponse rsp, JSONObject json, String etag, boolean partial) throws IOException {
+        if (partial) {
+            rsp.setHeader("Cache-Control", "no-store");
+        } else {
+            rsp.setHeader("ETag", etag);
+            rsp.setHeader("Cache-Control", "no-cache");
+        }
+        rsp.setContentType("application/json;charset=UTF-8");
+        PrintWriter writer = rsp.getWriter();
+        json.write(writer);
+        writer.flush();
+    }
+}
@@ -27,6 +27,7 @@ import hudson.plugins.ColorChanger;
 import hudson.Extension;
 import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
+import java.util.Objects;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
@@ -40,6 +41,9 @@ public class ChartModel extends AbstractDescribableImpl<ChartModel> {
     private String resultsWhiteList;
     private String chartColor;
     private int rangeAroundWlist;
+    private int maxPoints;
+    private transient BuildNameFilter blackListFilter;
+    private transient BuildNameFilter whiteListFilter;
 
     @DataBoundConstructor
     public ChartModel(String title, String fileNameGlob, String key, int limit, String chartColor, int rangeAroundWlist) {
@@ -117,6 +121,15 @@ public class ChartModel extends AbstractDescribableImpl<ChartModel> {
         this.rangeAroundWlist = rangeAroundWlist;
     }
 
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    @DataBoundSetter
+    public void setMaxPoints(int maxPoints) {
+        this.maxPoints = maxPoints;
+    }
+
     public static class ChartDescriptor extends Descriptor<ChartModel> {
 
         @Override
@@ -129,6 +142,7 @@ public class ChartModel extends AbstractDescribableImpl<ChartModel> {
     @DataBoundSetter
     public void setResultBlackList(String resultBlackList) {
         this.resultsBlackList = resultBlackList;
+        this.blackListFilter = null;
     }
 
     public String getResultBlackList() {
@@ -138,12 +152,34 @@ public class ChartModel extends AbstractDescribableImpl<ChartModel> {
     @DataBoundSetter
     public void setResultWhiteList(String resultWhiteList) {
         this.resultsWhiteList = resultWhiteList;
+        this.whiteListFilter = null;
     }
 
     public String getResultWhiteList() {
         return resultsWhiteList;
     }
 
+    BuildNameFilter getBlackListFilter() {
+        if (blackListFilter == null) {
+            blackListFilter = BuildNameFilter.compile(resultsBlackList);
+        }
+        return blackListFilter;
+    }
+
+    BuildNameFilter getWhiteListFilter() {
+        if (whiteListFilter == null) {
+            whiteListFilter = BuildNameFilter.compile(resultsWhiteList);
+        }
+        return whiteListFilter;
+    }
+
+    /*
+    Changes whenever anything what affects rendered chart changes
+     */
+    int getConfigHash() {
+        return Objects.hash(title, fileNameGlob, key, limit, resultsBlackList, resultsWhiteList, chartColor, rangeAroundWlist, maxPoints);
+    }
+
     public String getPointColor(boolean isInRangeOfWhiteListed) {
         if (isInRangeOfWhiteListed) {
             //there is 32 because it slightly change shade of color so graph is more readable
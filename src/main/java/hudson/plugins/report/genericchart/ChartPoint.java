@@ -23,42 +23,57 @@
  */
 package hudson.plugins.report.genericchart;
 
-import hudson.plugins.Chartjs;
-
+/*
+View of one point of a series, so the Jelly views can keep using points
+ */
 public class ChartPoint {
 
-    private final String buildName;
-    private final String buildNameShortened;
-    private final int buildNumber;
+    private final ChartSeries series;
+    private final int index;
     private final String value;
-    private final String pointColor;
 
+    ChartPoint(ChartSeries series, int index) {
+        this(series, index, null);
+    }
+
+    /*
+    Kept for callers creating points themselves, the point is a series of its own.
+    The value is kept as it was given, it does not need to be a number.
+     */
+    @Deprecated
     public ChartPoint(String buildName, int buildNumber, String value, String pointColor) {
-        this.buildName = buildName;
-        this.buildNameShortened = Chartjs.getShortName(buildName, buildNumber);
-        this.buildNumber = buildNumber;
+        this(new ChartSeries.Builder(new String[]{pointColor, pointColor}, 1)
+                .add(buildNumber, buildName, 0, Double.NaN, ChartSeries.COLOR)
+                .build(false), 0, value);
+    }
+
+    private ChartPoint(ChartSeries series, int index, String value) {
+        this.series = series;
+        this.index = index;
         this.value = value;
-        this.pointColor = pointColor;
     }
 
     public String getBuildName() {
-        return buildName;
+        return series.getBuildName(index);
     }
 
     public String getBuildNameShortened() {
-        return buildNameShortened;
+        return series.getBuildNameShortened(index);
     }
 
     public int getBuildNumber() {
-        return buildNumber;
+        return series.getBuildNumber(index);
     }
 
     public String getValue() {
-        return value;
+        if (value != null) {
+            return value;
+        }
+        return series.getValueAsString(index);
     }
 
     public String getPointColor() {
-        return pointColor;
+        return series.getPointColor(index);
     }
 
 }
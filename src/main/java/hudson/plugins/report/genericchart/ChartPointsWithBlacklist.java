@@ -23,24 +23,43 @@
  */
 package hudson.plugins.report.genericchart;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class ChartPointsWithBlacklist {
 
-    private final List<ChartPoint> points;
+    private final ChartSeries series;
     private final List<String> blacklisted;
     private final List<String> whitelisted;
     private final int whiteListSizeWithoutSurroundings;
+    private final boolean partial;
+    private final Map<String, ChartSeries> keySeries;
 
-    public ChartPointsWithBlacklist(List<ChartPoint> points, List<String> blacklisted, List<String> whitelisted, int whiteListSizeWithoutSurroundings) {
+    public ChartPointsWithBlacklist(ChartSeries series, List<String> blacklisted, List<String> whitelisted, int whiteListSizeWithoutSurroundings) {
+        this(series, blacklisted, whitelisted, whiteListSizeWithoutSurroundings, false);
+    }
+
+    public ChartPointsWithBlacklist(ChartSeries series, List<String> blacklisted, List<String> whitelisted, int whiteListSizeWithoutSurroundings, boolean partial) {
+        this(series, blacklisted, whitelisted, whiteListSizeWithoutSurroundings, partial, Collections.emptyMap());
+    }
+
+    public ChartPointsWithBlacklist(ChartSeries series, List<String> blacklisted, List<String> whitelisted, int whiteListSizeWithoutSurroundings, boolean partial,
+            Map<String, ChartSeries> keySeries) {
+        this.keySeries = keySeries;
         this.blacklisted = blacklisted;
-        this.points = points;
+        this.series = series;
         this.whitelisted = whitelisted;
         this.whiteListSizeWithoutSurroundings = whiteListSizeWithoutSurroundings;
+        this.partial = partial;
     }
 
     public List<ChartPoint> getPoints() {
-        return points;
+        return series.asPoints();
+    }
+
+    public ChartSeries getSeries() {
+        return series;
     }
 
     public List<String> getBlacklist() {
@@ -55,4 +74,19 @@ public class ChartPointsWithBlacklist {
         return whiteListSizeWithoutSurroundings;
     }
 
+    /*
+    Computation ran out of time budget, these are the points gathered so far
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /*
+    Series of each key matched by key pattern, sorted by key, the first of them
+    is also the series of the chart. Empty for ordinary key.
+     */
+    public Map<String, ChartSeries> getKeySeries() {
+        return keySeries;
+    }
+
 }
@@ -0,0 +1,364 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.plugins.Chartjs;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/*
+Points of one chart, oldest first, stored in columns of primitives. The point
+color is an index to a small palette (chart color, and its shade for points
+in range of whitelisted builds), so the cached series can be recolored by
+swapping the palette. Shortened build names are computed only when asked for.
+Start times of the builds are kept, so series of different jobs can be aligned.
+ */
+public final class ChartSeries {
+
+    static final byte COLOR = 0;
+    static final byte COLOR_IN_RANGE_OF_WHITELISTED = 1;
+
+    private final int[] buildNumbers;
+    private final String[] buildNames;
+    private final long[] timestamps;
+    private final double[] values;
+    private final byte[] colors;
+    private final String[] palette;
+    private volatile String[] shortNames;
+
+    private ChartSeries(int[] buildNumbers, String[] buildNames, long[] timestamps, double[] values, byte[] colors, String[] palette) {
+        this.buildNumbers = buildNumbers;
+        this.buildNames = buildNames;
+        this.timestamps = timestamps;
+        this.values = values;
+        this.colors = colors;
+        this.palette = palette;
+    }
+
+    static String[] palette(ChartModel chart) {
+        return new String[]{chart.getPointColor(false), chart.getPointColor(true)};
+    }
+
+    public int size() {
+        return buildNumbers.length;
+    }
+
+    public boolean isEmpty() {
+        return buildNumbers.length == 0;
+    }
+
+    public int getBuildNumber(int i) {
+        return buildNumbers[i];
+    }
+
+    public String getBuildName(int i) {
+        return buildNames[i];
+    }
+
+    public long getTimestamp(int i) {
+        return timestamps[i];
+    }
+
+    public String getBuildNameShortened(int i) {
+        String[] names = shortNames;
+        if (names == null) {
+            names = new String[buildNames.length];
+            shortNames = names;
+        }
+        if (names[i] == null) {
+            names[i] = Chartjs.getShortName(buildNames[i], buildNumbers[i]);
+        }
+        return names[i];
+    }
+
+    public double getValue(int i) {
+        return values[i];
+    }
+
+    public String getValueAsString(int i) {
+        return formatValue(values[i]);
+    }
+
+    public String getColor() {
+        return palette[COLOR];
+    }
+
+    public String getPointColor(int i) {
+        return palette[colors[i]];
+    }
+
+    boolean isInRangeOfWhitelisted(int i) {
+        return colors[i] == COLOR_IN_RANGE_OF_WHITELISTED;
+    }
+
+    /*
+    Whole numbers are printed without fraction, as they were in the report
+     */
+    static String formatValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    public List<ChartPoint> asPoints() {
+        return new PointList();
+    }
+
+    ChartSeries withPalette(String[] newPalette) {
+        if (Arrays.equals(palette, newPalette)) {
+            return this;
+        }
+        return new ChartSeries(buildNumbers, buildNames, timestamps, values, colors, newPalette);
+    }
+
+    /*
+    Builds may finish out of order, so the point is placed by its number,
+    and the oldest point is dropped if the limit is exceeded
+     */
+    ChartSeries withPoint(int buildNumber, String buildName, long timestamp, double value, byte color, int limit) {
+        int size = size();
+        boolean full = limit > 0 && size >= limit;
+        if (full && size > 0 && buildNumbers[0] > buildNumber) {
+            return this;
+        }
+        int position = size;
+        while (position > 0 && buildNumbers[position - 1] > buildNumber) {
+            position--;
+        }
+        Builder builder = new Builder(palette, size + 1);
+        for (int i = full ? 1 : 0; i < size; i++) {
+            if (i == position) {
+                builder.add(buildNumber, buildName, timestamp, value, color);
+            }
+            builder.add(buildNumbers[i], buildNames[i], timestamps[i], values[i], colors[i]);
+        }
+        if (position == size) {
+            builder.add(buildNumber, buildName, timestamp, value, color);
+        }
+        return builder.build(false);
+    }
+
+    ChartSeries withoutBuild(int buildNumber) {
+        Builder builder = new Builder(palette, size());
+        for (int i = 0; i < size(); i++) {
+            if (buildNumbers[i] != buildNumber) {
+                builder.add(buildNumbers[i], buildNames[i], timestamps[i], values[i], colors[i]);
+            }
+        }
+        return builder.build(false);
+    }
+
+    /*
+    Reduces the series to about maxPoints points by Largest-Triangle-Three-Buckets,
+    so the shape of long histories is preserved. The first and last points, the
+    global minimum and maximum, and the points in range of whitelisted builds are
+    always kept, the rest of the budget is filled by LTTB.
+     */
+    ChartSeries downsample(int maxPoints) {
+        int size = size();
+        if (maxPoints <= 0 || size <= maxPoints || size <= 2) {
+            return this;
+        }
+        boolean[] keep = new boolean[size];
+        keep[0] = true;
+        keep[size - 1] = true;
+        int min = 0;
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            if (values[i] < values[min]) {
+                min = i;
+            }
+            if (values[i] > values[max]) {
+                max = i;
+            }
+            if (colors[i] != COLOR) {
+                keep[i] = true;
+            }
+        }
+        keep[min] = true;
+        keep[max] = true;
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) {
+                kept++;
+            }
+        }
+        //first and last are part of the LTTB selection
+        int buckets = maxPoints - kept;
+        if (buckets > 0) {
+            selectLargestTriangles(buckets, keep);
+        }
+        Builder builder = new Builder(palette, Math.min(size, maxPoints + kept));
+        for (int i = 0; i < size; i++) {
+            if (keep[i]) {
+                builder.add(buildNumbers[i], buildNames[i], timestamps[i], values[i], colors[i]);
+            }
+        }
+        return builder.build(false);
+    }
+
+    /*
+    Points between the first and the last are split into buckets, and from each
+    the point forming the largest triangle with the previously selected point and
+    the average of the next bucket is selected.
+     */
+    private void selectLargestTriangles(int buckets, boolean[] keep) {
+        int size = size();
+        double bucketSize = (double) (size - 2) / buckets;
+        int selected = 0;
+        for (int b = 0; b < buckets; b++) {
+            int start = (int) (b * bucketSize) + 1;
+            int end = Math.min((int) ((b + 1) * bucketSize) + 1, size - 1);
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((b + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += values[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+            double maxArea = -1;
+            int best = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((selected - avgX) * (values[i] - values[selected])
+                        - (selected - i) * (avgY - values[selected]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            keep[best] = true;
+            selected = best;
+        }
+    }
+
+    boolean containsBuild(int buildNumber) {
+        for (int number : buildNumbers) {
+            if (number == buildNumber) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class PointList extends AbstractList<ChartPoint> implements RandomAccess {
+
+        @Override
+        public ChartPoint get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return new ChartPoint(ChartSeries.this, index);
+        }
+
+        @Override
+        public int size() {
+            return ChartSeries.this.size();
+        }
+    }
+
+    static class Builder {
+
+        private final String[] palette;
+        private int[] buildNumbers;
+        private String[] buildNames;
+        private long[] timestamps;
+        private double[] values;
+        private byte[] colors;
+        private int size;
+
+        Builder(String[] palette, int capacity) {
+            this.palette = palette;
+            int initial = Math.max(capacity, 4);
+            this.buildNumbers = new int[initial];
+            this.buildNames = new String[initial];
+            this.timestamps = new long[initial];
+            this.values = new double[initial];
+            this.colors = new byte[initial];
+        }
+
+        int size() {
+            return size;
+        }
+
+        String[] getPalette() {
+            return palette;
+        }
+
+        Builder add(int buildNumber, String buildName, long timestamp, double value, byte color) {
+            if (size == buildNumbers.length) {
+                int capacity = size * 2;
+                buildNumbers = Arrays.copyOf(buildNumbers, capacity);
+                buildNames = Arrays.copyOf(buildNames, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                values = Arrays.copyOf(values, capacity);
+                colors = Arrays.copyOf(colors, capacity);
+            }
+            buildNumbers[size] = buildNumber;
+            buildNames[size] = buildName;
+            timestamps[size] = timestamp;
+            values[size] = value;
+            colors[size] = color;
+            size++;
+            return this;
+        }
+
+        /*
+        The points are collected newest first, so they are usually reversed at the end
+         */
+        ChartSeries build(boolean reverse) {
+            int[] n = Arrays.copyOf(buildNumbers, size);
+            String[] b = Arrays.copyOf(buildNames, size);
+            long[] t = Arrays.copyOf(timestamps, size);
+            double[] v = Arrays.copyOf(values, size);
+            byte[] c = Arrays.copyOf(colors, size);
+            if (reverse) {
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    int tn = n[i];
+                    n[i] = n[j];
+                    n[j] = tn;
+                    String tb = b[i];
+                    b[i] = b[j];
+                    b[j] = tb;
+                    long tt = t[i];
+                    t[i] = t[j];
+                    t[j] = tt;
+                    double tv = v[i];
+                    v[i] = v[j];
+                    v[j] = tv;
+                    byte tc = c[i];
+                    c[i] = c[j];
+                    c[j] = tc;
+                }
+            }
+            return new ChartSeries(n, b, t, v, c, palette);
+        }
+    }
+}
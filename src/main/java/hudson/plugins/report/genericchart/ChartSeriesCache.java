@@ -0,0 +1,708 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
+
+/*
+Computed series of each job, so the charts are not recomputed on every request.
+The series are updated incrementally when build finishes or is deleted, only
+the series which can not be updated in place are dropped and computed again.
+The series of all the jobs together are limited by their number of points,
+the least recently used ones are dropped first.
+ */
+public class ChartSeriesCache {
+
+    private static final ChartSeriesCache INSTANCE = new ChartSeriesCache();
+    private static final String MEMO_ATTRIBUTE = ChartSeriesCache.class.getName() + ".memo";
+
+    private final Map<Job<?, ?>, JobSeries> jobs = new WeakHashMap<>();
+    private final WeightedLru<Object> lru = new WeightedLru<>(
+            GenericChartGlobalConfiguration::getCacheMaxPointsOrDefault,
+            () -> TimeUnit.MINUTES.toMillis(GenericChartGlobalConfiguration.getCacheExpireMinutesOrDefault()));
+
+    public static ChartSeriesCache getInstance() {
+        return INSTANCE;
+    }
+
+    public ChartPointsWithBlacklist getReportPointsWithBlacklist(Job<?, ?> job, ChartModel chart) {
+        return getReportPointsWithBlacklist(job, Collections.singletonList(chart)).get(0);
+    }
+
+    /*
+    Series missing in the cache are computed together, in one pass over the builds.
+    Charts with the same series (differing only in title or color) share it, and
+    the series is remembered for the rest of the http request, so it is computed
+    at most once per page even if it could not be cached.
+     */
+    public List<ChartPointsWithBlacklist> getReportPointsWithBlacklist(Job<?, ?> job, List<ChartModel> charts) {
+        return getReportPointsWithBlacklist(job, charts, GenericChartGlobalConfiguration.getTimeBudgetMillisOrDefault());
+    }
+
+    /*
+    Ignores the time budget: the series are computed in the calling thread, or
+    waited for when another request computes them, and are never partial. For
+    the warm-up, whose threads must stay busy until the series are done, so
+    they bound how many jobs are read at once.
+     */
+    List<ChartPointsWithBlacklist> getCompletePointsWithBlacklist(Job<?, ?> job, List<ChartModel> charts) {
+        return getReportPointsWithBlacklist(job, charts, 0);
+    }
+
+    private List<ChartPointsWithBlacklist> getReportPointsWithBlacklist(Job<?, ?> job, List<ChartModel> charts, long budget) {
+        JobSeries jobSeries = getJobSeries(job);
+        ChartStatistics.Counters counters = ChartStatistics.get().forJob(job);
+        Map<SeriesKey, ChartPointsWithBlacklist> memo = getRequestMemo(job);
+        List<ChartPointsWithBlacklist> result = new ArrayList<>(charts.size());
+        List<SeriesKey> keys = new ArrayList<>(charts.size());
+        Map<SeriesKey, ChartModel> missing = new LinkedHashMap<>();
+        for (ChartModel chart : charts) {
+            SeriesKey key = new SeriesKey(chart);
+            keys.add(key);
+            ChartPointsWithBlacklist memoized = memo == null ? null : memo.get(key);
+            CachedSeries cached = memoized == null ? jobSeries.get(key) : null;
+            if (memoized != null) {
+                result.add(withColor(memoized, chart));
+            } else if (cached != null) {
+                counters.cacheHit();
+                result.add(withColor(cached.points, chart));
+            } else {
+                counters.cacheMiss();
+                result.add(null);
+                missing.putIfAbsent(key, chart);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<SeriesKey, ChartPointsWithBlacklist> computedByKey = compute(job, jobSeries, missing, budget);
+        if (memo != null) {
+            memo.putAll(computedByKey);
+        }
+        for (int j = 0; j < charts.size(); j++) {
+            if (result.get(j) == null) {
+                result.set(j, withColor(computedByKey.get(keys.get(j)), charts.get(j)));
+            }
+        }
+        return result;
+    }
+
+    /*
+    Loaded series index of a job weighs in the cache like the series, see SeriesIndex
+     */
+    void weighIndex(SeriesIndex index, long weight, Runnable onEviction) {
+        lru.put(index, weight, onEviction);
+    }
+
+    void touchIndex(SeriesIndex index) {
+        lru.touch(index);
+    }
+
+    /*
+    Null when the series is not cached, it is never computed here
+     */
+    ChartPointsWithBlacklist getCachedPointsWithBlacklist(Job<?, ?> job, ChartModel chart) {
+        JobSeries jobSeries = getJobSeriesIfPresent(job);
+        CachedSeries cached = jobSeries == null ? null : jobSeries.get(new SeriesKey(chart));
+        return cached == null ? null : cached.points;
+    }
+
+    /*
+    Null outside of http request, or in the threads computing for the request
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<SeriesKey, ChartPointsWithBlacklist> getRequestMemo(Job<?, ?> job) {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        if (request == null) {
+            return null;
+        }
+        Map<Job<?, ?>, Map<SeriesKey, ChartPointsWithBlacklist>> memo
+                = (Map<Job<?, ?>, Map<SeriesKey, ChartPointsWithBlacklist>>) request.getAttribute(MEMO_ATTRIBUTE);
+        if (memo == null) {
+            memo = new ConcurrentHashMap<>();
+            request.setAttribute(MEMO_ATTRIBUTE, memo);
+        }
+        return memo.computeIfAbsent(job, j -> new ConcurrentHashMap<>());
+    }
+
+    /*
+    Column without color set gets new random color for every request,
+    so the cached points are recolored rather then recomputed
+     */
+    private static ChartPointsWithBlacklist withColor(ChartPointsWithBlacklist points, ChartModel chart) {
+        ChartSeries series = points.getSeries().withPalette(ChartSeries.palette(chart));
+        if (series == points.getSeries()) {
+            return points;
+        }
+        return new ChartPointsWithBlacklist(series, points.getBlacklist(), points.getWhitelist(),
+                points.getWhiteListSizeWithoutSurroundings(), points.isPartial(), points.getKeySeries());
+    }
+
+    /*
+    Series already being computed for another request are waited for rather than
+    computed again, the rest is computed by this request in one pass.
+    With time budget, the computation runs in background. When it does not finish
+    in time, the points gathered so far are returned, marked as partial, and the
+    computation goes on to store the whole series to the cache. When the background
+    pool is full, the computation is not started at all, and the empty partial series
+    are returned at once, for the client to ask again.
+     */
+    private Map<SeriesKey, ChartPointsWithBlacklist> compute(Job<?, ?> job, JobSeries jobSeries, Map<SeriesKey, ChartModel> missing, long budget) {
+        Map<SeriesKey, ChartPointsWithBlacklist> result = new HashMap<>();
+        Map<SeriesKey, Flight> flights = new HashMap<>();
+        Flight own = jobSeries.startOrJoin(job, missing, result, flights);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+        if (own != null) {
+            if (budget <= 0) {
+                own.run();
+            } else {
+                try {
+                    ExtractionExecutor.submitBackground(own);
+                } catch (RejectedExecutionException ex) {
+                    own.reject(ex);
+                }
+            }
+        }
+        for (Map.Entry<SeriesKey, Flight> flight : flights.entrySet()) {
+            result.put(flight.getKey(), flight.getValue().await(flight.getKey(), budget <= 0 ? -1 : deadline - System.nanoTime()));
+        }
+        return result;
+    }
+
+    /*
+    Changes with every build event of the job
+     */
+    public long getGeneration(Job<?, ?> job) {
+        JobSeries jobSeries = getJobSeriesIfPresent(job);
+        return jobSeries == null ? 0 : jobSeries.getGeneration();
+    }
+
+    public void clear() {
+        synchronized (jobs) {
+            jobs.clear();
+        }
+        lru.clear();
+    }
+
+    /*
+    Applies changed limits without waiting for next computation
+     */
+    public void evict() {
+        lru.evict();
+    }
+
+    public long getCachedPoints() {
+        return lru.getWeight();
+    }
+
+    public int getCachedSeries() {
+        return lru.size();
+    }
+
+    public long getEvictions() {
+        return lru.getEvictions();
+    }
+
+    /*
+    Since the statistics were reset
+     */
+    public long getHitPercent() {
+        ChartStatistics.Counters total = ChartStatistics.get().getTotal();
+        long requests = total.getCacheHits() + total.getCacheMisses();
+        return requests == 0 ? 0 : total.getCacheHits() * 100 / requests;
+    }
+
+    private JobSeries getJobSeries(Job<?, ?> job) {
+        synchronized (jobs) {
+            return jobs.computeIfAbsent(job, j -> new JobSeries(lru));
+        }
+    }
+
+    private JobSeries getJobSeriesIfPresent(Job<?, ?> job) {
+        synchronized (jobs) {
+            return jobs.get(job);
+        }
+    }
+
+    void onCompleted(Run<?, ?> run) {
+        JobSeries jobSeries = getJobSeriesIfPresent(run.getParent());
+        if (jobSeries != null) {
+            jobSeries.onCompleted(run);
+        }
+    }
+
+    void onDeleted(Run<?, ?> run) {
+        JobSeries jobSeries = getJobSeriesIfPresent(run.getParent());
+        if (jobSeries != null) {
+            jobSeries.onDeleted(run);
+        }
+    }
+
+    /*
+    The series are changed under the lock of the job, but evicted by the lru without
+    it, so they are in a concurrent map, and the eviction removes only the series
+    which was evicted, not a newer one
+     */
+    private static class JobSeries {
+
+        private final Map<SeriesKey, CachedSeries> series = new ConcurrentHashMap<>();
+        private final Map<SeriesKey, Flight> inFlight = new HashMap<>();
+        private final WeightedLru<Object> lru;
+        /*
+        Increased on every build event, so the series computed while a build was
+        finishing or being deleted are not stored as they may be already outdated
+         */
+        private long generation;
+
+        JobSeries(WeightedLru<Object> lru) {
+            this.lru = lru;
+        }
+
+        synchronized CachedSeries get(SeriesKey key) {
+            CachedSeries cached = series.get(key);
+            if (cached != null) {
+                lru.touch(new Slot(this, key));
+            }
+            return cached;
+        }
+
+        private void store(SeriesKey key, CachedSeries value) {
+            series.put(key, value);
+            lru.put(new Slot(this, key), value.getWeight(), () -> series.remove(key, value));
+        }
+
+        private void drop(SeriesKey key) {
+            series.remove(key);
+            lru.remove(new Slot(this, key));
+        }
+
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        synchronized void put(SeriesKey key, CachedSeries value, long computedInGeneration) {
+            if (generation == computedInGeneration) {
+                store(key, value);
+            }
+        }
+
+        /*
+        Series cached meanwhile go to ready, the others to flights: either to the
+        computation already running, or to the returned new one, which the caller
+        has to run. Returns null if there is nothing left to compute.
+         */
+        synchronized Flight startOrJoin(Job<?, ?> job, Map<SeriesKey, ChartModel> missing,
+                Map<SeriesKey, ChartPointsWithBlacklist> ready, Map<SeriesKey, Flight> flights) {
+            List<SeriesKey> keys = new ArrayList<>();
+            List<ChartModel> charts = new ArrayList<>();
+            for (Map.Entry<SeriesKey, ChartModel> chart : missing.entrySet()) {
+                CachedSeries cached = series.get(chart.getKey());
+                Flight running = inFlight.get(chart.getKey());
+                if (cached != null) {
+                    ready.put(chart.getKey(), cached.points);
+                } else if (running != null) {
+                    flights.put(chart.getKey(), running);
+                } else {
+                    keys.add(chart.getKey());
+                    charts.add(chart.getValue());
+                }
+            }
+            if (keys.isEmpty()) {
+                return null;
+            }
+            Flight flight = new Flight(this, SeriesIndex.of(job), job.getFullName(), generation, keys, new PropertiesParser().computation(job, charts));
+            for (SeriesKey key : keys) {
+                inFlight.put(key, flight);
+                flights.put(key, flight);
+            }
+            return flight;
+        }
+
+        synchronized void landed(Flight flight) {
+            for (SeriesKey key : flight.keys) {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
+                justification = "run.getResult().isWorseThan(Result.UNSTABLE) claims to have NPE, but I'm failing to see it")
+        void onCompleted(Run<?, ?> run) {
+            Map<SeriesKey, CachedSeries> before;
+            synchronized (this) {
+                generation++;
+                inFlight.clear();
+                before = new HashMap<>(series);
+            }
+            if (run.getResult() == null || run.getResult().isWorseThan(Result.UNSTABLE)) {
+                synchronized (this) {
+                    for (SeriesKey key : before.keySet()) {
+                        if (!key.canAppend()) {
+                            drop(key);
+                        }
+                    }
+                }
+                return;
+            }
+            //extraction is done outside of the lock, in one pass for all the keys
+            Set<ValueKey> valueKeys = new HashSet<>();
+            for (SeriesKey key : before.keySet()) {
+                if (key.canAppend()) {
+                    valueKeys.add(key.valueKey);
+                }
+            }
+            Map<ValueKey, String> values = new ReportValuesExtractor().getValues(run, valueKeys);
+            /*
+            Only the series which were cached before and did not change meanwhile are
+            appended to. Series stored meanwhile were computed in the new generation,
+            with the build already, series changed by another build event are dropped.
+             */
+            synchronized (this) {
+                for (Map.Entry<SeriesKey, CachedSeries> entry : before.entrySet()) {
+                    SeriesKey key = entry.getKey();
+                    CachedSeries cached = series.get(key);
+                    if (cached == null) {
+                        //evicted meanwhile
+                        continue;
+                    }
+                    CachedSeries updated = cached != entry.getValue() || !key.canAppend()
+                            ? null : cached.append(key, run, values.get(key.valueKey));
+                    if (updated == null) {
+                        drop(key);
+                    } else if (updated != cached) {
+                        store(key, updated);
+                    }
+                }
+            }
+        }
+
+        synchronized void onDeleted(Run<?, ?> run) {
+            generation++;
+            inFlight.clear();
+            for (SeriesKey key : new ArrayList<>(series.keySet())) {
+                CachedSeries cached = series.get(key);
+                CachedSeries updated = cached == null ? null : cached.remove(key, run);
+                if (updated == null) {
+                    drop(key);
+                } else {
+                    store(key, updated);
+                }
+            }
+        }
+    }
+
+    /*
+    One computation of several series of a job, shared by all the requests
+    asking for any of them while it runs
+     */
+    private static class Flight implements Callable<List<ChartPointsWithBlacklist>> {
+
+        private final JobSeries jobSeries;
+        private final SeriesIndex index;
+        private final String jobName;
+        private final long generation;
+        private final List<SeriesKey> keys;
+        private final PropertiesParser.Computation computation;
+        private final CompletableFuture<List<ChartPointsWithBlacklist>> done = new CompletableFuture<>();
+
+        Flight(JobSeries jobSeries, SeriesIndex index, String jobName, long generation, List<SeriesKey> keys, PropertiesParser.Computation computation) {
+            this.jobSeries = jobSeries;
+            this.index = index;
+            this.jobName = jobName;
+            this.generation = generation;
+            this.keys = keys;
+            this.computation = computation;
+        }
+
+        @Override
+        public List<ChartPointsWithBlacklist> call() {
+            run();
+            return done.getNow(null);
+        }
+
+        void run() {
+            index.pin();
+            try {
+                List<ChartPointsWithBlacklist> computed = computation.call();
+                for (int i = 0; i < keys.size(); i++) {
+                    jobSeries.put(keys.get(i), new CachedSeries(computed.get(i)), generation);
+                }
+                done.complete(computed);
+            } catch (RuntimeException ex) {
+                done.completeExceptionally(ex);
+            } catch (Error ex) {
+                done.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                index.unpin();
+                jobSeries.landed(this);
+            }
+        }
+
+        /*
+        Not run, as there was no thread for it. The requests waiting for it get
+        what the computation has, that is nothing, as partial.
+         */
+        void reject(RejectedExecutionException ex) {
+            done.completeExceptionally(ex);
+            jobSeries.landed(this);
+        }
+
+        /*
+        Negative timeout waits until the series is computed
+         */
+        ChartPointsWithBlacklist await(SeriesKey key, long timeoutNanos) {
+            int index = keys.indexOf(key);
+            try {
+                if (timeoutNanos < 0) {
+                    return done.get().get(index);
+                }
+                return done.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS).get(index);
+            } catch (TimeoutException ex) {
+                return computation.snapshot().get(index);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return computation.snapshot().get(index);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RejectedExecutionException) {
+                    return computation.snapshot().get(index);
+                }
+                throw new IllegalStateException("Failed to compute charts of " + jobName, ex.getCause());
+            }
+        }
+    }
+
+    private static class CachedSeries {
+
+        private final ChartPointsWithBlacklist points;
+
+        CachedSeries(ChartPointsWithBlacklist points) {
+            this.points = points;
+        }
+
+        long getWeight() {
+            long weight = 1L + points.getSeries().size() + points.getBlacklist().size() + points.getWhitelist().size();
+            for (ChartSeries keySeries : points.getKeySeries().values()) {
+                weight += keySeries.size();
+            }
+            return weight;
+        }
+
+        /*
+        Returns null if the series can not be updated without computing it again:
+        the whitelist matched no build so far, so all builds were shown, and now it does.
+        Series which already has the build is returned as it is.
+         */
+        CachedSeries append(SeriesKey key, Run<?, ?> run, String value) {
+            String name = run.getDisplayName();
+            if (points.getSeries().containsBuild(run.getNumber())) {
+                return this;
+            }
+            boolean whitelistIgnored = !key.whitelistFilter.isEmpty() && points.getWhitelist().isEmpty();
+            List<String> blacklist = points.getBlacklist();
+            List<String> whitelist = points.getWhitelist();
+            int whiteListSizeWithoutSurroundings = points.getWhiteListSizeWithoutSurroundings();
+            ChartSeries series = points.getSeries();
+            boolean blacklisted = key.blacklistFilter.matches(name);
+            boolean whitelisted = key.whitelistFilter.matches(name);
+            if (blacklisted) {
+                blacklist = prepend(blacklist, name);
+            }
+            if (whitelisted && whitelistIgnored) {
+                return null;
+            }
+            if (whitelisted) {
+                whitelist = prepend(whitelist, name);
+                whiteListSizeWithoutSurroundings++;
+            }
+            if (!blacklisted && (whitelisted || whitelistIgnored || key.whitelistFilter.isEmpty()) && value != null) {
+                series = series.withPoint(run.getNumber(), name, run.getStartTimeInMillis(), Double.parseDouble(value), ChartSeries.COLOR, key.limit);
+            }
+            return new CachedSeries(new ChartPointsWithBlacklist(series, blacklist, whitelist, whiteListSizeWithoutSurroundings));
+        }
+
+        /*
+        Returns null if the series can not be updated without computing it again.
+         */
+        CachedSeries remove(SeriesKey key, Run<?, ?> run) {
+            String name = run.getDisplayName();
+            if (points.getWhitelist().contains(name) || KeyPattern.isPattern(key.valueKey.getKey())) {
+                return null;
+            }
+            List<String> blacklist = points.getBlacklist();
+            if (blacklist.contains(name)) {
+                blacklist = new ArrayList<>(blacklist);
+                blacklist.remove(name);
+            }
+            ChartSeries series = points.getSeries();
+            if (series.containsBuild(run.getNumber())) {
+                if (key.limit > 0 && series.size() >= key.limit) {
+                    //an older build would take the place of the deleted one
+                    return null;
+                }
+                series = series.withoutBuild(run.getNumber());
+            }
+            return new CachedSeries(new ChartPointsWithBlacklist(series, blacklist, points.getWhitelist(), points.getWhiteListSizeWithoutSurroundings()));
+        }
+
+        private static List<String> prepend(List<String> list, String item) {
+            List<String> result = new ArrayList<>(list.size() + 1);
+            result.add(item);
+            result.addAll(list);
+            return result;
+        }
+    }
+
+    /*
+    Series of one job in the lru
+     */
+    private static class Slot {
+
+        private final JobSeries owner;
+        private final SeriesKey key;
+
+        Slot(JobSeries owner, SeriesKey key) {
+            this.owner = owner;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Slot that = (Slot) o;
+            return owner == that.owner && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(owner) + key.hashCode();
+        }
+    }
+
+    private static class SeriesKey {
+
+        private final ValueKey valueKey;
+        private final String blacklist;
+        private final String whitelist;
+        private final int rangeAroundWlist;
+        private final int limit;
+        private final BuildNameFilter blacklistFilter;
+        private final BuildNameFilter whitelistFilter;
+
+        /*
+        Configurations which give the same series give the same key
+         */
+        SeriesKey(ChartModel chart) {
+            this.valueKey = new ValueKey(chart);
+            this.blacklist = normalize(chart.getResultBlackList());
+            this.whitelist = normalize(chart.getResultWhiteList());
+            this.rangeAroundWlist = whitelist.isEmpty() ? 0 : chart.getRangeAroundWlist();
+            this.limit = Math.max(0, chart.getLimit());
+            this.blacklistFilter = chart.getBlackListFilter();
+            this.whitelistFilter = chart.getWhiteListFilter();
+        }
+
+        /*
+        The lists are split on whitespace
+         */
+        private static String normalize(String list) {
+            if (list == null || list.trim().isEmpty()) {
+                return "";
+            }
+            return String.join(" ", list.trim().split("\\s+"));
+        }
+
+        /*
+        Surroundings of whitelisted builds may change with every new build,
+        such series are computed again, as well as series of key patterns
+         */
+        boolean canAppend() {
+            return (rangeAroundWlist == 0 || whitelistFilter.isEmpty()) && !KeyPattern.isPattern(valueKey.getKey());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SeriesKey that = (SeriesKey) o;
+            return rangeAroundWlist == that.rangeAroundWlist
+                    && limit == that.limit
+                    && valueKey.equals(that.valueKey)
+                    && Objects.equals(blacklist, that.blacklist)
+                    && Objects.equals(whitelist, that.whitelist);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(valueKey, blacklist, whitelist, rangeAroundWlist, limit);
+        }
+    }
+
+    @Extension
+    public static class CacheUpdater extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, TaskListener listener) {
+            getInstance().onCompleted(run);
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            getInstance().onDeleted(run);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Counters of the chart computation, for the whole plugin and for each job,
+so slow dashboards can be traced to the jobs causing them. Shown on the
+management page and exported in Prometheus text format, see ChartStatisticsLink.
+ */
+public final class ChartStatistics {
+
+    private static final ChartStatistics INSTANCE = new ChartStatistics();
+
+    private final Counters total = new Counters(null, null);
+    private final ConcurrentMap<String, Counters> jobs = new ConcurrentHashMap<>();
+    private volatile long since = System.currentTimeMillis();
+
+    private ChartStatistics() {
+    }
+
+    public static ChartStatistics get() {
+        return INSTANCE;
+    }
+
+    public Counters getTotal() {
+        return total;
+    }
+
+    /*
+    Increments of the job counters are added to the total as well
+     */
+    public Counters forJob(Job<?, ?> job) {
+        if (job == null) {
+            return total;
+        }
+        return jobs.computeIfAbsent(job.getFullName(), name -> new Counters(name, total));
+    }
+
+    /*
+    Jobs with the most time spent in computation first
+     */
+    public List<Counters> getJobs() {
+        List<Counters> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparingLong(Counters::getComputationNanos).reversed());
+        return result;
+    }
+
+    public Date getSince() {
+        return new Date(since);
+    }
+
+    public void reset() {
+        jobs.clear();
+        total.reset();
+        since = System.currentTimeMillis();
+    }
+
+    /*
+    Counters of the item, and of the jobs inside it when it is a folder
+     */
+    void forget(String fullName) {
+        jobs.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + "/"));
+    }
+
+    /*
+    Counters are kept by full name, so deleted and renamed jobs are dropped
+    rather than listed forever
+     */
+    @Extension
+    public static class CountersRemover extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            get().forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            get().forget(oldFullName);
+        }
+    }
+
+    public static final class Counters {
+
+        private final String job;
+        private final Counters parent;
+        private final LongAdder computations = new LongAdder();
+        private final LongAdder chartsComputed = new LongAdder();
+        private final LongAdder computationNanos = new LongAdder();
+        private final LongAccumulator maxComputationNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder buildsExamined = new LongAdder();
+        private final LongAdder buildsRead = new LongAdder();
+        private final LongAdder directoriesWalked = new LongAdder();
+        private final LongAdder filesOpened = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder indexHits = new LongAdder();
+
+        Counters(String job, Counters parent) {
+            this.job = job;
+            this.parent = parent;
+        }
+
+        public void computed(int charts, long nanos) {
+            computations.increment();
+            chartsComputed.add(charts);
+            computationNanos.add(nanos);
+            maxComputationNanos.accumulate(nanos);
+            if (parent != null) {
+                parent.computed(charts, nanos);
+            }
+        }
+
+        public void buildExamined() {
+            buildsExamined.increment();
+            if (parent != null) {
+                parent.buildExamined();
+            }
+        }
+
+        public void buildRead() {
+            buildsRead.increment();
+            if (parent != null) {
+                parent.buildRead();
+            }
+        }
+
+        public void directoryWalked() {
+            directoriesWalked.increment();
+            if (parent != null) {
+                parent.directoryWalked();
+            }
+        }
+
+        public void fileRead(long bytes) {
+            filesOpened.increment();
+            bytesRead.add(bytes);
+            if (parent != null) {
+                parent.fileRead(bytes);
+            }
+        }
+
+        public void failed() {
+            failures.increment();
+            if (parent != null) {
+                parent.failed();
+            }
+        }
+
+        public void cacheHit() {
+            cacheHits.increment();
+            if (parent != null) {
+                parent.cacheHit();
+            }
+        }
+
+        public void cacheMiss() {
+            cacheMisses.increment();
+            if (parent != null) {
+                parent.cacheMiss();
+            }
+        }
+
+        public void indexHit() {
+            indexHits.increment();
+            if (parent != null) {
+                parent.indexHit();
+            }
+        }
+
+        void reset() {
+            for (LongAdder adder : new LongAdder[]{computations, chartsComputed, computationNanos, buildsExamined, buildsRead,
+                directoriesWalked, filesOpened, bytesRead, failures, cacheHits, cacheMisses, indexHits}) {
+                adder.reset();
+            }
+            maxComputationNanos.reset();
+        }
+
+        public String getJob() {
+            return job;
+        }
+
+        public long getComputations() {
+            return computations.sum();
+        }
+
+        public long getChartsComputed() {
+            return chartsComputed.sum();
+        }
+
+        public long getComputationNanos() {
+            return computationNanos.sum();
+        }
+
+        public long getComputationMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(getComputationNanos());
+        }
+
+        public long getMaxComputationMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxComputationNanos.get());
+        }
+
+        /*
+        Charts are computed together, so this is the share of one chart
+         */
+        public long getMillisPerChart() {
+            long charts = getChartsComputed();
+            return charts == 0 ? 0 : getComputationMillis() / charts;
+        }
+
+        public long getBuildsExamined() {
+            return buildsExamined.sum();
+        }
+
+        public long getBuildsRead() {
+            return buildsRead.sum();
+        }
+
+        public long getDirectoriesWalked() {
+            return directoriesWalked.sum();
+        }
+
+        public long getFilesOpened() {
+            return filesOpened.sum();
+        }
+
+        public long getBytesRead() {
+            return bytesRead.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getCacheHits() {
+            return cacheHits.sum();
+        }
+
+        public long getCacheMisses() {
+            return cacheMisses.sum();
+        }
+
+        public long getIndexHits() {
+            return indexHits.sum();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.security.Permission;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+/*
+Manage Jenkins page with the ChartStatistics, and the same numbers in the
+Prometheus text format at genericChartStatistics/prometheus. Both need the
+ADMINISTER permission, so a Prometheus scraper has to authenticate as an
+administrator, with an API token.
+ */
+@Extension
+public class ChartStatisticsLink extends ManagementLink {
+
+    static final int SHOWN_JOBS = 50;
+
+    @Override
+    public String getIconFileName() {
+        return "graph.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Charts from properties statistics";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Time spent computing charts and chart columns, and the builds, directories and files read, per job.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "genericChartStatistics";
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return Jenkins.ADMINISTER;
+    }
+
+    public ChartStatistics getStatistics() {
+        return ChartStatistics.get();
+    }
+
+    public List<ChartStatistics.Counters> getWorstJobs() {
+        List<ChartStatistics.Counters> jobs = ChartStatistics.get().getJobs();
+        return jobs.subList(0, Math.min(SHOWN_JOBS, jobs.size()));
+    }
+
+    @RequirePOST
+    public void doReset(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        ChartStatistics.get().reset();
+        rsp.sendRedirect(".");
+    }
+
+    public void doPrometheus(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        rsp.setContentType("text/plain; version=0.0.4;charset=UTF-8");
+        PrintWriter writer = rsp.getWriter();
+        ChartStatistics statistics = ChartStatistics.get();
+        List<ChartStatistics.Counters> jobs = statistics.getJobs();
+        metric(writer, "computations_total", "Chart computations, all charts of a job computed together count once", jobs, statistics.getTotal(), ChartStatistics.Counters::getComputations);
+        metric(writer, "charts_computed_total", "Charts computed", jobs, statistics.getTotal(), ChartStatistics.Counters::getChartsComputed);
+        metric(writer, "computation_seconds_total", "Time spent computing charts", jobs, statistics.getTotal(), c -> c.getComputationNanos() / 1e9);
+        metric(writer, "builds_examined_total", "Builds iterated while computing charts", jobs, statistics.getTotal(), ChartStatistics.Counters::getBuildsExamined);
+        metric(writer, "builds_read_total", "Build directories searched for report files", jobs, statistics.getTotal(), ChartStatistics.Counters::getBuildsRead);
+        metric(writer, "directories_walked_total", "Directories entered while searching report files", jobs, statistics.getTotal(), ChartStatistics.Counters::getDirectoriesWalked);
+        metric(writer, "files_opened_total", "Report files read", jobs, statistics.getTotal(), ChartStatistics.Counters::getFilesOpened);
+        metric(writer, "bytes_read_total", "Bytes read from report files", jobs, statistics.getTotal(), ChartStatistics.Counters::getBytesRead);
+        metric(writer, "failures_total", "Build directories or report files which failed to be read", jobs, statistics.getTotal(), ChartStatistics.Counters::getFailures);
+        metric(writer, "cache_hits_total", "Charts served from the cache", jobs, statistics.getTotal(), ChartStatistics.Counters::getCacheHits);
+        metric(writer, "cache_misses_total", "Charts which had to be computed", jobs, statistics.getTotal(), ChartStatistics.Counters::getCacheMisses);
+        metric(writer, "index_hits_total", "Builds whose values were found in the index file", jobs, statistics.getTotal(), ChartStatistics.Counters::getIndexHits);
+        writer.flush();
+    }
+
+    private interface Value {
+
+        double of(ChartStatistics.Counters counters);
+    }
+
+    /*
+    Total, and the per job breakdown as separate metric, so summing the jobs does not count the total twice
+     */
+    private static void metric(PrintWriter writer, String name, String help, List<ChartStatistics.Counters> jobs, ChartStatistics.Counters total, Value value) {
+        String totalName = "jenkins_generic_chart_" + name;
+        writer.print("# HELP " + totalName + " " + help + "\n");
+        writer.print("# TYPE " + totalName + " counter\n");
+        writer.print(totalName + " " + format(value.of(total)) + "\n");
+        String jobName = "jenkins_generic_chart_job_" + name;
+        writer.print("# HELP " + jobName + " " + help + ", per job\n");
+        writer.print("# TYPE " + jobName + " counter\n");
+        for (ChartStatistics.Counters job : jobs) {
+            writer.print(jobName + "{job=\"" + escapeLabel(job.getJob()) + "\"} " + format(value.of(job)) + "\n");
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
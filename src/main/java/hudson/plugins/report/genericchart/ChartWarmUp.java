@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Util;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Job;
+import hudson.model.ListView;
+import hudson.model.TopLevelItem;
+import hudson.model.View;
+import hudson.model.ViewGroup;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/*
+Optionally computes the series of all charts and chart columns after start,
+so the first users do not pay for reading all the builds. It runs in a few
+low priority threads, one job at a time in each, with all the charts and
+columns of the job computed together. The time budget does not apply, a
+thread takes the next job only once the series of the previous one are done.
+ */
+public final class ChartWarmUp {
+
+    private static final Logger LOGGER = Logger.getLogger(ChartWarmUp.class.getName());
+
+    private ChartWarmUp() {
+    }
+
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void warmUpOnStart() {
+        GenericChartGlobalConfiguration config = GenericChartGlobalConfiguration.get();
+        if (config == null || !config.isWarmUpOnStart()) {
+            return;
+        }
+        Thread starter = new Thread(() -> warmUp(config.getWarmUpThreads()), "Generic chart warm-up");
+        starter.setDaemon(true);
+        starter.setPriority(Thread.MIN_PRIORITY);
+        starter.start();
+    }
+
+    static void warmUp(int threads) {
+        Map<Job<?, ?>, Set<ChartModel>> charts;
+        try (ACLContext ctx = ACL.as(ACL.SYSTEM)) {
+            charts = findCharts();
+        }
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "Generic chart warm-up");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), factory);
+        for (Map.Entry<Job<?, ?>, Set<ChartModel>> job : charts.entrySet()) {
+            executor.submit(() -> {
+                try (ACLContext ctx = ACL.as(ACL.SYSTEM)) {
+                    ChartSeriesCache.getInstance().getCompletePointsWithBlacklist(job.getKey(), new ArrayList<>(job.getValue()));
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.WARNING, "Failed to compute charts of " + job.getKey().getFullName(), ex);
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    /*
+    Charts of jobs with the publisher (charts over several jobs under each of their jobs),
+    and chart columns of all list views with the jobs they show
+     */
+    private static Map<Job<?, ?>, Set<ChartModel>> findCharts() {
+        Map<Job<?, ?>, Set<ChartModel>> charts = new LinkedHashMap<>();
+        for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+            GenericChartProjectAction action = job.getAction(GenericChartProjectAction.class);
+            if (action == null || action.getChartModels() == null) {
+                continue;
+            }
+            for (ChartModel model : action.getChartModels()) {
+                if (model instanceof CrossJobChartModel) {
+                    for (Job<?, ?> other : ((CrossJobChartModel) model).resolveJobs()) {
+                        charts.computeIfAbsent(other, j -> new LinkedHashSet<>()).add(model);
+                    }
+                } else {
+                    charts.computeIfAbsent(job, j -> new LinkedHashSet<>()).add(model);
+                }
+            }
+        }
+        for (View view : allViews()) {
+            if (!(view instanceof ListView)) {
+                continue;
+            }
+            List<GenericChartColumn> columns = Util.filter(((ListView) view).getColumns(), GenericChartColumn.class);
+            if (columns.isEmpty()) {
+                continue;
+            }
+            for (TopLevelItem item : view.getItems()) {
+                if (item instanceof Job) {
+                    Set<ChartModel> models = charts.computeIfAbsent((Job<?, ?>) item, j -> new LinkedHashSet<>());
+                    for (GenericChartColumn column : columns) {
+                        models.add(column.getChartModel());
+                    }
+                }
+            }
+        }
+        return charts;
+    }
+
+    /*
+    Views of Jenkins and of all the folders the current user can read, with nested views
+     */
+    private static List<View> allViews() {
+        List<View> views = new ArrayList<>();
+        collectViews(Jenkins.get().getViews(), views);
+        for (ViewGroup group : Jenkins.get().allItems(ViewGroup.class)) {
+            collectViews(group.getViews(), views);
+        }
+        return views;
+    }
+
+    private static void collectViews(Collection<View> views, List<View> result) {
+        if (views == null) {
+            return;
+        }
+        for (View view : views) {
+            result.add(view);
+            if (view instanceof ViewGroup) {
+                collectViews(((ViewGroup) view).getViews(), result);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Util;
+import hudson.model.Job;
+import hudson.model.ListView;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+/*
+Series of several chart columns for several jobs, computed in one request.
+All the columns of a job are computed together, so each build is read once
+for all of them, and the jobs are computed in parallel. The response is json
+array with one job per line, written as soon as the job is done, in whatever
+order the jobs finish. Jobs not done in time are written as errors, so the
+array is always complete. Jobs which do not fit into the pool are answered
+with their cached series, as partial.
+ */
+class ColumnBatch {
+
+    private static final Logger LOGGER = Logger.getLogger(ColumnBatch.class.getName());
+
+    static final int MAX_JOBS = 100;
+    static final int MAX_COLUMNS = 50;
+    /*
+    Longest wait for the jobs when there is no time budget, and the grace
+    period after the budget, in which the computations return partial series
+     */
+    private static final long MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long BUDGET_GRACE_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final List<ChartModel> columns;
+    private final List<String> jobNames;
+
+    ColumnBatch(List<ChartModel> columns, List<String> jobNames) {
+        this.columns = columns;
+        this.jobNames = jobNames;
+    }
+
+    /*
+    Jobs come as repeated 'job' parameter, columns as repeated 'column' parameter
+    with the position of the column among the chart columns of the view. The
+    configuration of the columns is never taken from the request, so the request
+    can not make the server read other files, keys or regexes than the views do.
+    Null if the column is not found.
+     */
+    static ColumnBatch fromRequest(ListView view, StaplerRequest req) {
+        String[] indexes = req.getParameterValues("column");
+        if (indexes == null) {
+            return null;
+        }
+        List<GenericChartColumn> viewColumns = Util.filter(view.getColumns(), GenericChartColumn.class);
+        List<ChartModel> columns = new ArrayList<>();
+        for (String index : indexes) {
+            if (columns.size() >= MAX_COLUMNS) {
+                break;
+            }
+            int i;
+            try {
+                i = Integer.parseInt(index);
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+            if (i < 0 || i >= viewColumns.size()) {
+                return null;
+            }
+            columns.add(viewColumns.get(i).getChartModel());
+        }
+        Set<String> jobNames = new LinkedHashSet<>();
+        String[] jobs = req.getParameterValues("job");
+        if (jobs != null) {
+            for (String job : jobs) {
+                jobNames.add(job);
+                if (jobNames.size() >= MAX_JOBS) {
+                    break;
+                }
+            }
+        }
+        return new ColumnBatch(columns, new ArrayList<>(jobNames));
+    }
+
+    void send(StaplerResponse rsp) throws IOException {
+        //jobs are resolved in the request thread, as it checks the READ permission
+        List<Job<?, ?>> jobs = new ArrayList<>(jobNames.size());
+        for (String name : jobNames) {
+            Job<?, ?> job = Jenkins.get().getItemByFullName(name, Job.class);
+            if (job != null) {
+                jobs.add(job);
+            }
+        }
+        //the array is opened before any job is waited for, so the client sees the response started
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.setHeader("Cache-Control", "no-cache");
+        PrintWriter writer = rsp.getWriter();
+        writer.write("[\n");
+        writer.flush();
+        BlockingQueue<JSONObject> done = new LinkedBlockingQueue<>();
+        for (Job<?, ?> job : jobs) {
+            try {
+                ExtractionExecutor.submitSeries(() -> {
+                    JSONObject result = new JSONObject();
+                    result.put("job", job.getFullName());
+                    try {
+                        result.put("columns", compute(job));
+                    } catch (RuntimeException ex) {
+                        LOGGER.log(Level.WARNING, "Failed to compute charts of " + job.getFullName(), ex);
+                        result.put("error", String.valueOf(ex));
+                    } finally {
+                        done.add(result);
+                    }
+                    return result;
+                });
+            } catch (RejectedExecutionException ex) {
+                done.add(busy(job));
+            }
+        }
+        long budget = GenericChartGlobalConfiguration.getTimeBudgetMillisOrDefault();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget > 0 ? budget + BUDGET_GRACE_MILLIS : MAX_WAIT_MILLIS);
+        Set<String> pending = new LinkedHashSet<>();
+        for (Job<?, ?> job : jobs) {
+            pending.add(job.getFullName());
+        }
+        String error = null;
+        while (!pending.isEmpty() && error == null) {
+            JSONObject result;
+            try {
+                result = done.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                result = null;
+            }
+            if (result == null) {
+                error = Thread.currentThread().isInterrupted() ? "interrupted" : "timed out";
+                break;
+            }
+            pending.remove(result.getString("job"));
+            write(writer, result, pending.isEmpty());
+        }
+        int left = pending.size();
+        for (String job : pending) {
+            JSONObject result = new JSONObject();
+            result.put("job", job);
+            result.put("error", error);
+            write(writer, result, --left == 0);
+        }
+        writer.write("]\n");
+        writer.flush();
+    }
+
+    /*
+    Job which did not fit into the pool is answered with what is cached, marked as
+    partial, so the client asks again later
+     */
+    private JSONObject busy(Job<?, ?> job) {
+        JSONObject result = new JSONObject();
+        result.put("job", job.getFullName());
+        JSONArray series = new JSONArray();
+        for (ChartModel column : columns) {
+            ChartPointsWithBlacklist cached = ChartSeriesCache.getInstance().getCachedPointsWithBlacklist(job, column);
+            ChartSeries points = cached == null
+                    ? new ChartSeries.Builder(ChartSeries.palette(column), 0).build(false)
+                    : cached.getSeries().downsample(column.getMaxPoints());
+            series.add(ChartDataResponse.column(points, true));
+        }
+        result.put("columns", series);
+        return result;
+    }
+
+    private static void write(PrintWriter writer, JSONObject result, boolean last) {
+        result.write(writer);
+        writer.write(last ? "\n" : ",\n");
+        writer.flush();
+    }
+
+    private JSONArray compute(Job<?, ?> job) {
+        JSONArray result = new JSONArray();
+        if (columns.isEmpty()) {
+            return result;
+        }
+        List<ChartPointsWithBlacklist> series = ChartSeriesCache.getInstance().getReportPointsWithBlacklist(job, columns);
+        for (int i = 0; i < columns.size(); i++) {
+            ChartPointsWithBlacklist points = series.get(i);
+            result.add(ChartDataResponse.column(points.getSeries().downsample(columns.get(i).getMaxPoints()), points.isPartial()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.model.Job;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+Series of the charts of a job page, including those over several jobs. The
+charts are grouped by job, so all the charts of a job are computed together,
+in one pass over its builds, even when several charts span the same job, and
+the jobs are computed in parallel. The other jobs are resolved in the request
+thread, as it checks the READ permission.
+ */
+class CrossJobBatch {
+
+    private static final Logger LOGGER = Logger.getLogger(CrossJobBatch.class.getName());
+
+    private final Map<Job<?, ?>, List<ChartModel>> charts = new LinkedHashMap<>();
+    private final Map<CrossJobChartModel, List<Job<?, ?>>> crossJobs = new LinkedHashMap<>();
+    private final Map<Job<?, ?>, List<ChartPointsWithBlacklist>> computed = new HashMap<>();
+
+    CrossJobBatch(Job<?, ?> job, List<ChartModel> models) {
+        for (ChartModel model : models) {
+            if (model instanceof CrossJobChartModel) {
+                List<Job<?, ?>> jobs = ((CrossJobChartModel) model).resolveJobs();
+                crossJobs.put((CrossJobChartModel) model, jobs);
+                for (Job<?, ?> other : jobs) {
+                    add(other, model);
+                }
+            } else {
+                add(job, model);
+            }
+        }
+    }
+
+    private void add(Job<?, ?> job, ChartModel model) {
+        List<ChartModel> models = charts.computeIfAbsent(job, j -> new ArrayList<>());
+        if (!models.contains(model)) {
+            models.add(model);
+        }
+    }
+
+    /*
+    Changes with every build event of any of the jobs
+     */
+    int getJobsHash() {
+        int hash = 1;
+        for (Job<?, ?> job : charts.keySet()) {
+            hash = 31 * hash + ChartDataResponse.etag(job, 0).hashCode();
+        }
+        return hash;
+    }
+
+    /*
+    A single job is computed in the calling thread, as before, and so are the
+    jobs which do not fit into the pool. A job which failed is left out of the charts.
+     */
+    void compute() {
+        if (charts.size() == 1) {
+            Map.Entry<Job<?, ?>, List<ChartModel>> only = charts.entrySet().iterator().next();
+            computed.put(only.getKey(), ChartSeriesCache.getInstance().getReportPointsWithBlacklist(only.getKey(), only.getValue()));
+            return;
+        }
+        Map<Job<?, ?>, Future<List<ChartPointsWithBlacklist>>> futures = new LinkedHashMap<>();
+        for (Map.Entry<Job<?, ?>, List<ChartModel>> job : charts.entrySet()) {
+            try {
+                futures.put(job.getKey(), ExtractionExecutor.submitSeries(
+                        () -> ChartSeriesCache.getInstance().getReportPointsWithBlacklist(job.getKey(), job.getValue())));
+            } catch (RejectedExecutionException ex) {
+                //the page is rendered only once all is computed anyway
+                try {
+                    computed.put(job.getKey(), ChartSeriesCache.getInstance().getReportPointsWithBlacklist(job.getKey(), job.getValue()));
+                } catch (RuntimeException failed) {
+                    LOGGER.log(Level.WARNING, "Failed to compute charts of " + job.getKey().getFullName(), failed);
+                }
+            }
+        }
+        for (Map.Entry<Job<?, ?>, Future<List<ChartPointsWithBlacklist>>> future : futures.entrySet()) {
+            try {
+                computed.put(future.getKey(), future.getValue().get());
+            } catch (ExecutionException ex) {
+                LOGGER.log(Level.WARNING, "Failed to compute charts of " + future.getKey().getFullName(), ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /*
+    Null if the job failed
+     */
+    ChartPointsWithBlacklist getPoints(Job<?, ?> job, ChartModel model) {
+        List<ChartPointsWithBlacklist> points = computed.get(job);
+        if (points == null) {
+            return null;
+        }
+        return points.get(charts.get(job).indexOf(model));
+    }
+
+    /*
+    Series of each job of the chart, in the order the jobs were resolved
+     */
+    Map<Job<?, ?>, ChartPointsWithBlacklist> getPoints(CrossJobChartModel model) {
+        List<Job<?, ?>> jobs = crossJobs.get(model);
+        if (jobs == null) {
+            return Collections.emptyMap();
+        }
+        Map<Job<?, ?>, ChartPointsWithBlacklist> result = new LinkedHashMap<>();
+        for (Job<?, ?> job : jobs) {
+            ChartPointsWithBlacklist points = getPoints(job, model);
+            if (points != null) {
+                result.put(job, points);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Extension;
+import hudson.model.Descriptor;
+import hudson.model.Job;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/*
+Chart of one glob and key over several jobs, one line per job, aligned by the
+start time of the builds. The jobs are listed by full name, matched by regex
+over the full names, or taken from a folder (with its subfolders). The series
+of each job is the same as that of the job's own chart with the same glob and
+key, so it is cached, indexed and recorded the same way.
+ */
+public class CrossJobChartModel extends ChartModel {
+
+    /*
+    The chart would be unreadable with more lines anyway
+     */
+    static final int MAX_JOBS = 50;
+
+    private String jobs;
+    private String jobPattern;
+    private String folder;
+    private transient Pattern compiledJobPattern;
+
+    @DataBoundConstructor
+    public CrossJobChartModel(String title, String fileNameGlob, String key, int limit, String chartColor, int rangeAroundWlist) {
+        super(title, fileNameGlob, key, limit, chartColor, rangeAroundWlist);
+    }
+
+    public String getJobs() {
+        return jobs;
+    }
+
+    @DataBoundSetter
+    public void setJobs(String jobs) {
+        this.jobs = jobs;
+    }
+
+    public String getJobPattern() {
+        return jobPattern;
+    }
+
+    @DataBoundSetter
+    public void setJobPattern(String jobPattern) {
+        this.jobPattern = jobPattern;
+        this.compiledJobPattern = null;
+    }
+
+    public String getFolder() {
+        return folder;
+    }
+
+    @DataBoundSetter
+    public void setFolder(String folder) {
+        this.folder = folder;
+    }
+
+    /*
+    Only the jobs the current user can read, at most MAX_JOBS of them
+     */
+    List<Job<?, ?>> resolveJobs() {
+        Set<Job<?, ?>> result = new LinkedHashSet<>();
+        if (jobs != null) {
+            for (String name : jobs.split("[,\\n]")) {
+                if (result.size() >= MAX_JOBS) {
+                    return new ArrayList<>(result);
+                }
+                Job<?, ?> job = name.trim().isEmpty() ? null : Jenkins.get().getItemByFullName(name.trim(), Job.class);
+                if (job != null) {
+                    result.add(job);
+                }
+            }
+        }
+        Pattern pattern = getCompiledJobPattern();
+        String prefix = folder == null || folder.trim().isEmpty() ? null : folder.trim().replaceAll("/+$", "") + "/";
+        if (pattern == null && prefix == null) {
+            return new ArrayList<>(result);
+        }
+        for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+            if (result.size() >= MAX_JOBS) {
+                break;
+            }
+            String name = job.getFullName();
+            if ((pattern != null && pattern.matcher(name).matches()) || (prefix != null && name.startsWith(prefix))) {
+                result.add(job);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /*
+    Null when not set, invalid regex matches nothing
+     */
+    private Pattern getCompiledJobPattern() {
+        if (jobPattern == null || jobPattern.trim().isEmpty()) {
+            return null;
+        }
+        if (compiledJobPattern == null) {
+            try {
+                compiledJobPattern = Pattern.compile(jobPattern.trim());
+            } catch (PatternSyntaxException ex) {
+                compiledJobPattern = Pattern.compile("(?!)");
+            }
+        }
+        return compiledJobPattern;
+    }
+
+    @Override
+    int getConfigHash() {
+        return 31 * super.getConfigHash() + Objects.hash(jobs, jobPattern, folder);
+    }
+
+    @Override
+    public Descriptor<ChartModel> getDescriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Extension
+    public static final CrossJobChartDescriptor DESCRIPTOR = new CrossJobChartDescriptor();
+
+    public static class CrossJobChartDescriptor extends ChartDescriptor {
+
+        @Override
+        public String getDisplayName() {
+            return "Chart from properties of several jobs";
+        }
+
+    }
+}
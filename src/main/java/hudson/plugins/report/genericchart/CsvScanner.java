@@ -0,0 +1,260 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/*
+Reads values from csv with header, by column and row, e.g. 'Score[Benchmark=org.Foo.bar]'
+(as in results of JMH -rf csv). The row is selected by value of another column, or by its
+index ('Score[0]' is the first row, 'Score[-1]' the last one, other negative indexes select
+nothing), without selector the first row is used. Separator is comma, semicolon or tab, whatever is most common in the header.
+Rows are read one by one, and reading stops as soon as all values are found.
+ */
+public class CsvScanner implements ReportScanner {
+
+    private final String[] keys;
+    private final Selector[] selectors;
+
+    public CsvScanner(Collection<String> keys) {
+        this.keys = keys.toArray(new String[0]);
+        this.selectors = new Selector[this.keys.length];
+        for (int i = 0; i < this.keys.length; i++) {
+            this.selectors[i] = new Selector(ReportFormat.CSV.selector(this.keys[i]));
+        }
+    }
+
+    @Override
+    public long scan(InputStream in, Map<String, String> result) throws IOException {
+        CountingInputStream counting = new CountingInputStream(in);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return counting.getCount();
+        }
+        if (!headerLine.isEmpty() && headerLine.charAt(0) == '\uFEFF') {
+            headerLine = headerLine.substring(1);
+        }
+        char separator = separator(headerLine);
+        List<String> header = record(headerLine, reader, separator);
+        for (Selector selector : selectors) {
+            selector.resolve(header);
+        }
+        String[] last = new String[keys.length];
+        List<String> row;
+        for (int index = 0; result.size() < keys.length && (row = nextRecord(reader, separator)) != null; index++) {
+            for (int k = 0; k < keys.length; k++) {
+                if (result.containsKey(keys[k]) || !selectors[k].isResolved()) {
+                    continue;
+                }
+                String value = selectors[k].column < row.size() ? row.get(selectors[k].column).trim() : "";
+                if (selectors[k].lastRow) {
+                    //also when not a number, the value of the last row is wanted, not the last number
+                    last[k] = value;
+                } else if (PropertiesScanner.isNumber(value) && selectors[k].selects(row, index)) {
+                    result.put(keys[k], value);
+                }
+            }
+            if (allButLastFound(result, last)) {
+                break;
+            }
+        }
+        for (int k = 0; k < keys.length; k++) {
+            if (last[k] != null && PropertiesScanner.isNumber(last[k]) && !result.containsKey(keys[k])) {
+                result.put(keys[k], last[k]);
+            }
+        }
+        return counting.getCount();
+    }
+
+    /*
+    Last row can not be known until the end
+     */
+    private boolean allButLastFound(Map<String, String> result, String[] last) {
+        for (int k = 0; k < keys.length; k++) {
+            if (selectors[k].lastRow && selectors[k].isResolved()) {
+                return false;
+            }
+            if (!result.containsKey(keys[k]) && selectors[k].isResolved()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static char separator(String header) {
+        char best = ',';
+        int bestCount = 0;
+        for (char candidate : new char[]{',', ';', '\t'}) {
+            int count = 0;
+            for (int i = 0; i < header.length(); i++) {
+                if (header.charAt(i) == candidate) {
+                    count++;
+                }
+            }
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static List<String> nextRecord(BufferedReader reader, char separator) throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.trim().isEmpty()) {
+            line = reader.readLine();
+        }
+        return line == null ? null : record(line, reader, separator);
+    }
+
+    /*
+    Quoted fields may contain separators, doubled quotes and new lines
+     */
+    private static List<String> record(String firstLine, BufferedReader reader, char separator) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        String line = firstLine;
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == separator) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /*
+    Column[selector], resolved to indexes of columns by the header
+     */
+    private static final class Selector {
+
+        private static final int INVALID = Integer.MIN_VALUE;
+
+        private final String columnName;
+        private final String byColumnName;
+        private final String byValue;
+        /*
+        INVALID for selector which is not a number, or below -1
+         */
+        private final int rowIndex;
+        private final boolean lastRow;
+        private int column = -1;
+        private int byColumn = -1;
+
+        Selector(String key) {
+            String name = key;
+            String selector = null;
+            int open = key.lastIndexOf('[');
+            if (key.endsWith("]") && open > 0) {
+                name = key.substring(0, open).trim();
+                selector = key.substring(open + 1, key.length() - 1).trim();
+            }
+            this.columnName = name;
+            int equals = selector == null ? -1 : selector.indexOf('=');
+            if (equals > 0) {
+                this.byColumnName = selector.substring(0, equals).trim();
+                this.byValue = selector.substring(equals + 1).trim();
+                this.rowIndex = -1;
+            } else {
+                this.byColumnName = null;
+                this.byValue = null;
+                this.rowIndex = parseIndex(selector);
+            }
+            this.lastRow = byColumnName == null && rowIndex == -1;
+        }
+
+        private static int parseIndex(String selector) {
+            if (selector == null || selector.isEmpty()) {
+                return 0;
+            }
+            try {
+                int index = Integer.parseInt(selector);
+                return index < -1 ? INVALID : index;
+            } catch (NumberFormatException ex) {
+                return INVALID;
+            }
+        }
+
+        void resolve(List<String> header) {
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim();
+                if (name.equals(columnName)) {
+                    column = i;
+                }
+                if (name.equals(byColumnName)) {
+                    byColumn = i;
+                }
+            }
+        }
+
+        /*
+        Unresolved selector finds nothing, so it does not keep the file read
+         */
+        boolean isResolved() {
+            return column >= 0 && (byColumnName == null ? rowIndex != INVALID : byColumn >= 0);
+        }
+
+        boolean selects(List<String> row, int index) {
+            if (byColumnName != null) {
+                return byColumn < row.size() && row.get(byColumn).trim().equals(byValue);
+            }
+            return index == rowIndex;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+Plugin wide pool of threads reading the build directories. It is bounded
+and separate from the Jenkins shared pools, so charts can not starve them.
+When the queue is full, the caller reads the build itself.
+Series of different jobs are computed in a pool of their own, as they wait
+for the builds read in the first one. It always has at least two threads and
+never runs the series in the caller, so the caller can answer while they are
+computed, a full queue rejects the series. Computations which went over the
+time budget are finished in the background pool, which likewise has its own
+threads and rejects what does not fit.
+ */
+public final class ExtractionExecutor {
+
+    private static final int QUEUE_PER_THREAD = 16;
+
+    private static final Pool BUILDS = new Pool("Generic chart extraction", 1, new ThreadPoolExecutor.CallerRunsPolicy());
+    private static final Pool JOBS = new Pool("Generic chart series", 2, new ThreadPoolExecutor.AbortPolicy());
+    private static final Pool BACKGROUND = new Pool("Generic chart background", 2, new ThreadPoolExecutor.AbortPolicy());
+
+    private ExtractionExecutor() {
+    }
+
+    public static int getParallelism() {
+        return GenericChartGlobalConfiguration.getExtractionThreadsOrDefault();
+    }
+
+    /*
+    With parallelism of 1 the task is run in the calling thread
+     */
+    public static <T> Future<T> submit(Callable<T> task) {
+        return BUILDS.submit(task);
+    }
+
+    /*
+    For tasks computing whole series, which themselves submit the reading of builds.
+    Never run in the calling thread, throws RejectedExecutionException when the pool is full.
+     */
+    public static <T> Future<T> submitSeries(Callable<T> task) {
+        return JOBS.submit(task);
+    }
+
+    /*
+    For computations which may outlive the request. Never run in the calling thread,
+    throws RejectedExecutionException when the pool is full.
+     */
+    public static <T> Future<T> submitBackground(Callable<T> task) {
+        return BACKGROUND.submit(task);
+    }
+
+    private static class Pool {
+
+        private final String name;
+        private final int minThreads;
+        private final RejectedExecutionHandler whenFull;
+        private ThreadPoolExecutor executor;
+
+        Pool(String name, int minThreads, RejectedExecutionHandler whenFull) {
+            this.name = name;
+            this.minThreads = minThreads;
+            this.whenFull = whenFull;
+        }
+
+        <T> Future<T> submit(Callable<T> task) {
+            int threads = Math.max(minThreads, getParallelism());
+            if (threads <= 1) {
+                CompletableFuture<T> done = new CompletableFuture<>();
+                try {
+                    done.complete(task.call());
+                } catch (Exception ex) {
+                    done.completeExceptionally(ex);
+                }
+                return done;
+            }
+            return getExecutor(threads).submit(task);
+        }
+
+        private synchronized ThreadPoolExecutor getExecutor(int threads) {
+            if (executor == null) {
+                executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(threads * QUEUE_PER_THREAD),
+                        new NamingThreadFactory(new DaemonThreadFactory(), name),
+                        whenFull);
+                executor.allowCoreThreadTimeOut(true);
+            } else if (executor.getMaximumPoolSize() != threads) {
+                if (threads > executor.getMaximumPoolSize()) {
+                    executor.setMaximumPoolSize(threads);
+                    executor.setCorePoolSize(threads);
+                } else {
+                    executor.setCorePoolSize(threads);
+                    executor.setMaximumPoolSize(threads);
+                }
+            }
+            return executor;
+        }
+    }
+}
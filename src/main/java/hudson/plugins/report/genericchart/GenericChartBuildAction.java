@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import jenkins.model.RunAction2;
+
+/*
+Values of the publisher's charts, extracted once when the build was finished,
+so the charts do not need to walk the build directory on every page view.
+A recorded key without value means the key was searched for, but not found.
+ */
+public class GenericChartBuildAction implements RunAction2 {
+
+    private final List<RecordedValue> values;
+    private transient Run<?, ?> run;
+
+    public GenericChartBuildAction(List<RecordedValue> values) {
+        this.values = new ArrayList<>(values);
+    }
+
+    public List<RecordedValue> getValues() {
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    public RecordedValue getRecordedValue(String fileNameGlob, String key) {
+        for (RecordedValue value : getValues()) {
+            if (value.isFor(fileNameGlob, key)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    @Override
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return null;
+    }
+
+    public static class RecordedValue {
+
+        private final String fileNameGlob;
+        private final String key;
+        private final String value;
+
+        public RecordedValue(String fileNameGlob, String key, String value) {
+            this.fileNameGlob = fileNameGlob;
+            this.key = key;
+            this.value = value;
+        }
+
+        public String getFileNameGlob() {
+            return fileNameGlob;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        boolean isFor(String fileNameGlob, String key) {
+            return Objects.equals(this.fileNameGlob, fileNameGlob)
+                    && safeTrim(this.key).equals(safeTrim(key));
+        }
+
+        private static String safeTrim(String s) {
+            if (s == null) {
+                return "";
+            }
+            return s.trim();
+        }
+    }
+}
@@ -23,14 +23,24 @@
  */
 package hudson.plugins.report.genericchart;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.Job;
+import hudson.model.ListView;
+import hudson.model.Result;
+import hudson.model.Run;
 import hudson.views.ListViewColumn;
 import hudson.views.ListViewColumnDescriptor;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
 
 public class GenericChartColumn extends ListViewColumn {
 
@@ -42,6 +52,8 @@ public class GenericChartColumn extends ListViewColumn {
     private String resultsBlackList;
     private String resultsWhiteList;
     private int rangeAroundWlist;
+    private int maxPoints;
+    private transient volatile ChartModel chartModel;
 
     @DataBoundConstructor
     public GenericChartColumn(String fileNameGlob, String key, int limit, String columnCaption, String chartColor, int rangeAroundWlist) {
@@ -54,10 +66,132 @@ public class GenericChartColumn extends ListViewColumn {
     }
 
     public List<ChartPoint> getReportPoints(Job<?, ?> job) {
-        ChartModel model = new ChartModel(key, fileNameGlob, key, limit, chartColor, rangeAroundWlist);
-        model.setResultBlackList(resultsBlackList);
-        model.setResultWhiteList(resultsWhiteList);
-        return new PropertiesParser().getReportPointsWithBlacklist(job, model).getPoints();
+        return getReportPointsWithBlacklist(job).getSeries().asPoints();
+    }
+
+    /*
+    Downsampled to maxPoints
+     */
+    ChartPointsWithBlacklist getReportPointsWithBlacklist(Job<?, ?> job) {
+        List<ChartModel> models = new ArrayList<>();
+        models.add(getChartModel());
+        for (GenericChartColumn column : getSiblingColumns()) {
+            if (column != this) {
+                models.add(column.getChartModel());
+            }
+        }
+        ChartPointsWithBlacklist points = ChartSeriesCache.getInstance().getReportPointsWithBlacklist(job, models).get(0);
+        return new ChartPointsWithBlacklist(points.getSeries().downsample(maxPoints), points.getBlacklist(), points.getWhitelist(),
+                points.getWhiteListSizeWithoutSurroundings(), points.isPartial());
+    }
+
+    /*
+    Created once and kept until the column is reconfigured, so the blacklist and
+    whitelist filters are not parsed again for every job and every request
+     */
+    ChartModel getChartModel() {
+        ChartModel model = chartModel;
+        if (model == null) {
+            model = new ChartModel(key, fileNameGlob, key, limit, chartColor, rangeAroundWlist);
+            model.setResultBlackList(resultsBlackList);
+            model.setResultWhiteList(resultsWhiteList);
+            model.setMaxPoints(maxPoints);
+            chartModel = model;
+        }
+        return model;
+    }
+
+    /*
+    Other chart columns of the rendered view. They are computed together with this one,
+    so the builds of the job are read once for the whole row, and the other columns
+    are then served from the cache.
+     */
+    private List<GenericChartColumn> getSiblingColumns() {
+        ListView view = getRenderedView();
+        if (view == null) {
+            return Collections.emptyList();
+        }
+        return Util.filter(view.getColumns(), GenericChartColumn.class);
+    }
+
+    private static ListView getRenderedView() {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        if (request == null) {
+            return null;
+        }
+        return request.findAncestorObject(ListView.class);
+    }
+
+    /*
+    The browser asks the view for the data by the position of the column among
+    its chart columns, so only the configured columns are computed, see
+    GenericChartViewAction. Null outside of a list view.
+     */
+    public String getBatchUrl() {
+        ListView view = getRenderedView();
+        if (view == null) {
+            return null;
+        }
+        return Stapler.getCurrentRequest().getContextPath() + "/" + view.getViewUrl() + GenericChartViewAction.URL_NAME;
+    }
+
+    public int getColumnIndex() {
+        return getSiblingColumns().indexOf(this);
+    }
+
+    /*
+    Value the view is sorted by, the latest value of the chart. It is rendered
+    with the page, so also the rows which were not scrolled into sight yet sort
+    right. It comes only from memory: the cached series, or the value recorded
+    with the last completed build. Otherwise it is empty, and the browser fills
+    it in when the chart is loaded.
+     */
+    @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
+            justification = "run.getResult().isWorseThan(Result.UNSTABLE) claims to have NPE, but I'm failing to see it")
+    public String getSortValue(Job<?, ?> job) {
+        ChartModel model = getChartModel();
+        ChartPointsWithBlacklist cached = ChartSeriesCache.getInstance().getCachedPointsWithBlacklist(job, model);
+        if (cached != null) {
+            ChartSeries series = cached.getSeries();
+            return series.isEmpty() ? "0" : series.getValueAsString(series.size() - 1);
+        }
+        //which builds the whitelist leaves in is known only with the whole series
+        if (!model.getWhiteListFilter().isEmpty() && model.getRangeAroundWlist() >= 0) {
+            return "";
+        }
+        Run<?, ?> run = job.getLastCompletedBuild();
+        if (run == null
+                || run.getResult() == null
+                || run.getResult().isWorseThan(Result.UNSTABLE)
+                || model.getBlackListFilter().matches(run.getDisplayName())) {
+            return "";
+        }
+        ValueKey key = new ValueKey(model);
+        GenericChartBuildAction action = run.getAction(GenericChartBuildAction.class);
+        GenericChartBuildAction.RecordedValue recorded = action == null ? null : action.getRecordedValue(key.getFileNameGlob(), key.getKey());
+        if (recorded == null || recorded.getValue() == null) {
+            return "";
+        }
+        return toSortValue(recorded.getValue(), KeyPattern.isPattern(key.getKey()));
+    }
+
+    /*
+    Column with key pattern shows the first matched key
+     */
+    private static String toSortValue(String value, boolean pattern) {
+        String number = value;
+        if (pattern) {
+            Map<String, String> values = KeyPattern.decode(value);
+            if (values.isEmpty()) {
+                return "0";
+            }
+            number = values.values().iterator().next();
+        }
+        try {
+            return ChartSeries.formatValue(Double.parseDouble(number));
+        } catch (NumberFormatException ex) {
+            return "0";
+        }
     }
 
     public String getLatestResult(final List<ChartPoint> results) {
@@ -79,6 +213,7 @@ public class GenericChartColumn extends ListViewColumn {
     @DataBoundSetter
     public void setFileNameGlob(String fileNameGlob) {
         this.fileNameGlob = fileNameGlob;
+        this.chartModel = null;
     }
 
     public String getKey() {
@@ -88,6 +223,7 @@ public class GenericChartColumn extends ListViewColumn {
     @DataBoundSetter
     public void setKey(String key) {
         this.key = key;
+        this.chartModel = null;
     }
 
     public int getLimit() {
@@ -97,6 +233,7 @@ public class GenericChartColumn extends ListViewColumn {
     @DataBoundSetter
     public void setLimit(int limit) {
         this.limit = limit;
+        this.chartModel = null;
     }
 
     @Override
@@ -116,6 +253,7 @@ public class GenericChartColumn extends ListViewColumn {
     @DataBoundSetter
     public void setChartColor(String chartColor) {
         this.chartColor = chartColor;
+        this.chartModel = null;
     }
 
     @Extension
@@ -138,6 +276,7 @@ public class GenericChartColumn extends ListViewColumn {
     @DataBoundSetter
     public void setResultBlackList(String resultBlackList) {
         this.resultsBlackList = resultBlackList;
+        this.chartModel = null;
     }
 
     public String getResultBlackList() {
@@ -147,6 +286,7 @@ public class GenericChartColumn extends ListViewColumn {
     @DataBoundSetter
     public void setResultWhiteList(String resultWhiteList) {
         this.resultsWhiteList = resultWhiteList;
+        this.chartModel = null;
     }
 
     public String getResultWhiteList() {
@@ -160,6 +300,17 @@ public class GenericChartColumn extends ListViewColumn {
     @DataBoundSetter
     public void setRangeAroundWlist(int rangeAroundWlist) {
         this.rangeAroundWlist = rangeAroundWlist;
+        this.chartModel = null;
+    }
+
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    @DataBoundSetter
+    public void setMaxPoints(int maxPoints) {
+        this.maxPoints = maxPoints;
+        this.chartModel = null;
     }
 
 }
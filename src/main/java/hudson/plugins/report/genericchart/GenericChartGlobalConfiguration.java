@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Extension;
+import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.StaplerRequest;
+
+@Extension
+@Symbol("genericChart")
+public class GenericChartGlobalConfiguration extends GlobalConfiguration {
+
+    static final int DEFAULT_EXTRACTION_THREADS = 1;
+    static final int DEFAULT_WARM_UP_THREADS = 1;
+    static final long DEFAULT_CACHE_MAX_POINTS = 1_000_000;
+
+    private int extractionThreads = DEFAULT_EXTRACTION_THREADS;
+    private String excludedDirectories;
+    private boolean warmUpOnStart;
+    private int warmUpThreads = DEFAULT_WARM_UP_THREADS;
+    private long timeBudgetMillis;
+    private long cacheMaxPoints = DEFAULT_CACHE_MAX_POINTS;
+    private long cacheExpireMinutes;
+    private boolean readArchives;
+
+    public GenericChartGlobalConfiguration() {
+        load();
+    }
+
+    /*
+    Null when running outside of Jenkins, then the defaults are used
+     */
+    public static GenericChartGlobalConfiguration get() {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return null;
+        }
+        return GlobalConfiguration.all().get(GenericChartGlobalConfiguration.class);
+    }
+
+    public static int getExtractionThreadsOrDefault() {
+        GenericChartGlobalConfiguration config = get();
+        if (config == null) {
+            return DEFAULT_EXTRACTION_THREADS;
+        }
+        return config.getExtractionThreads();
+    }
+
+    public int getExtractionThreads() {
+        return Math.max(1, extractionThreads);
+    }
+
+    @DataBoundSetter
+    public void setExtractionThreads(int extractionThreads) {
+        this.extractionThreads = Math.max(1, extractionThreads);
+    }
+
+    public static String getExcludedDirectoriesOrDefault() {
+        GenericChartGlobalConfiguration config = get();
+        if (config == null) {
+            return null;
+        }
+        return config.getExcludedDirectories();
+    }
+
+    public String getExcludedDirectories() {
+        return excludedDirectories;
+    }
+
+    @DataBoundSetter
+    public void setExcludedDirectories(String excludedDirectories) {
+        this.excludedDirectories = excludedDirectories;
+    }
+
+    public static boolean isReadArchivesOrDefault() {
+        GenericChartGlobalConfiguration config = get();
+        return config != null && config.isReadArchives();
+    }
+
+    public boolean isReadArchives() {
+        return readArchives;
+    }
+
+    @DataBoundSetter
+    public void setReadArchives(boolean readArchives) {
+        this.readArchives = readArchives;
+    }
+
+    public boolean isWarmUpOnStart() {
+        return warmUpOnStart;
+    }
+
+    @DataBoundSetter
+    public void setWarmUpOnStart(boolean warmUpOnStart) {
+        this.warmUpOnStart = warmUpOnStart;
+    }
+
+    public int getWarmUpThreads() {
+        return Math.max(1, warmUpThreads);
+    }
+
+    @DataBoundSetter
+    public void setWarmUpThreads(int warmUpThreads) {
+        this.warmUpThreads = Math.max(1, warmUpThreads);
+    }
+
+    /*
+    Zero means no limit
+     */
+    public static long getTimeBudgetMillisOrDefault() {
+        GenericChartGlobalConfiguration config = get();
+        if (config == null) {
+            return 0;
+        }
+        return config.getTimeBudgetMillis();
+    }
+
+    public long getTimeBudgetMillis() {
+        return Math.max(0, timeBudgetMillis);
+    }
+
+    @DataBoundSetter
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = Math.max(0, timeBudgetMillis);
+    }
+
+    public static long getCacheMaxPointsOrDefault() {
+        GenericChartGlobalConfiguration config = get();
+        if (config == null) {
+            return DEFAULT_CACHE_MAX_POINTS;
+        }
+        return config.getCacheMaxPoints();
+    }
+
+    /*
+    Zero turns the cache off
+     */
+    public long getCacheMaxPoints() {
+        return Math.max(0, cacheMaxPoints);
+    }
+
+    @DataBoundSetter
+    public void setCacheMaxPoints(long cacheMaxPoints) {
+        this.cacheMaxPoints = Math.max(0, cacheMaxPoints);
+        ChartSeriesCache.getInstance().evict();
+    }
+
+    /*
+    Zero means the series do not expire
+     */
+    public static long getCacheExpireMinutesOrDefault() {
+        GenericChartGlobalConfiguration config = get();
+        if (config == null) {
+            return 0;
+        }
+        return config.getCacheExpireMinutes();
+    }
+
+    public long getCacheExpireMinutes() {
+        return Math.max(0, cacheExpireMinutes);
+    }
+
+    @DataBoundSetter
+    public void setCacheExpireMinutes(long cacheExpireMinutes) {
+        this.cacheExpireMinutes = Math.max(0, cacheExpireMinutes);
+        ChartSeriesCache.getInstance().evict();
+    }
+
+    public ChartSeriesCache getCache() {
+        return ChartSeriesCache.getInstance();
+    }
+
+    @Override
+    public boolean configure(StaplerRequest req, JSONObject json) throws FormException {
+        req.bindJSON(this, json);
+        save();
+        return true;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Charts from properties";
+    }
+}
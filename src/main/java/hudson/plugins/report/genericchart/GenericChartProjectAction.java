@@ -25,9 +25,13 @@ package hudson.plugins.report.genericchart;
 
 import hudson.model.Action;
 import hudson.model.Job;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 
 public class GenericChartProjectAction implements Action {
 
@@ -39,19 +43,76 @@ public class GenericChartProjectAction implements Action {
         this.charts = charts;
     }
 
+    List<ChartModel> getChartModels() {
+        return charts;
+    }
+
     public List<ReportChart> getCharts() {
+        return getCharts(new CrossJobBatch(job, charts == null ? new ArrayList<>() : charts));
+    }
+
+    private List<ReportChart> getCharts(CrossJobBatch batch) {
         if (charts == null || charts.isEmpty()) {
             return new ArrayList<>();
         }
-        PropertiesParser parser = new PropertiesParser();
-        List<ReportChart> list = charts.stream()
-                .sequential()
-                .map(m -> ReportChart.createReportChart(m, parser, job))
-                .filter(r -> r.getPoints() != null && r.getPoints().size() > 0)
-                .collect(Collectors.toList());
+        batch.compute();
+        List<ReportChart> list = new ArrayList<>(charts.size());
+        for (ChartModel model : charts) {
+            ReportChart chart;
+            if (model instanceof CrossJobChartModel) {
+                chart = ReportChart.createCrossJobChart((CrossJobChartModel) model, batch.getPoints((CrossJobChartModel) model));
+            } else {
+                ChartPointsWithBlacklist points = batch.getPoints(job, model);
+                if (points == null) {
+                    continue;
+                }
+                chart = ReportChart.createReportChart(model, points);
+            }
+            if (chart.isPartial() || chart.getSeries().size() > 0) {
+                list.add(chart);
+            }
+        }
         return list;
     }
 
+    /*
+    Series of all the charts, fetched by the floating box
+     */
+    public void doData(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        int configHash = 1;
+        List<ChartModel> models = charts == null ? new ArrayList<>() : charts;
+        for (ChartModel chart : models) {
+            configHash = 31 * configHash + chart.getConfigHash();
+        }
+        //charts over several jobs change also with the builds of the other jobs
+        CrossJobBatch batch = new CrossJobBatch(job, models);
+        configHash = 31 * configHash + batch.getJobsHash();
+        String etag = ChartDataResponse.etag(job, configHash);
+        if (ChartDataResponse.isNotModified(req, rsp, etag)) {
+            return;
+        }
+        JSONArray array = new JSONArray();
+        boolean partial = false;
+        for (ReportChart chart : getCharts(batch)) {
+            JSONObject json;
+            if (!chart.getJobUrls().isEmpty()) {
+                json = ChartDataResponse.jobSeries(chart.getKeySeries(), chart.getJobUrls());
+            } else if (!chart.getKeySeries().isEmpty()) {
+                json = ChartDataResponse.keySeries(chart.getKeySeries());
+            } else {
+                json = ChartDataResponse.series(chart.getSeries());
+            }
+            json.put("title", chart.getTitle());
+            json.put("color", chart.getColor());
+            json.put("partial", chart.isPartial());
+            array.add(json);
+            partial |= chart.isPartial();
+        }
+        JSONObject json = new JSONObject();
+        json.put("charts", array);
+        ChartDataResponse.send(rsp, json, etag, partial);
+    }
+
     @Override
     public String getIconFileName() {
         return null;
@@ -64,7 +125,7 @@ public class GenericChartProjectAction implements Action {
 
     @Override
     public String getUrlName() {
-        return null;
+        return "genericChart";
     }
 
 }
@@ -34,9 +34,13 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
 import hudson.tasks.Publisher;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import jenkins.model.Jenkins;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -57,6 +61,22 @@ public class GenericChartPublisher extends Publisher {
 
     @Override
     public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+        if (charts == null || charts.isEmpty()) {
+            return true;
+        }
+        Set<ValueKey> keys = new LinkedHashSet<>();
+        for (ChartModel chart : charts) {
+            //charts over several jobs are read from the builds of those jobs
+            if (!(chart instanceof CrossJobChartModel)) {
+                keys.add(new ValueKey(chart));
+            }
+        }
+        Map<ValueKey, String> found = new ReportValuesExtractor().findValues(build.getRootDir().toPath(), keys);
+        List<GenericChartBuildAction.RecordedValue> values = new ArrayList<>(keys.size());
+        for (ValueKey key : keys) {
+            values.add(new GenericChartBuildAction.RecordedValue(key.getFileNameGlob(), key.getKey(), found.get(key)));
+        }
+        build.addOrReplaceAction(new GenericChartBuildAction(values));
         return true;
     }
 
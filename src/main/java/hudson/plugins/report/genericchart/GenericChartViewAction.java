@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.ListView;
+import hudson.model.View;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import jenkins.model.TransientViewActionFactory;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+/*
+Action of list views with chart columns, not shown in the side panel, which
+serves the series of the columns, see ColumnBatch. The view is found by stapler
+from the url, wherever it is: in Jenkins, in a folder, nested in another view
+or among the views of a user.
+ */
+public class GenericChartViewAction implements Action {
+
+    static final String URL_NAME = "genericChartBatch";
+
+    private final ListView view;
+
+    GenericChartViewAction(ListView view) {
+        this.view = view;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    public void doIndex(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        view.checkPermission(View.READ);
+        ColumnBatch batch = ColumnBatch.fromRequest(view, req);
+        if (batch == null) {
+            rsp.sendError(StaplerResponse.SC_NOT_FOUND);
+            return;
+        }
+        batch.send(rsp);
+    }
+
+    @Extension
+    public static class Factory extends TransientViewActionFactory {
+
+        @Override
+        public List<Action> createFor(View view) {
+            if (view instanceof ListView && !Util.filter(((ListView) view).getColumns(), GenericChartColumn.class).isEmpty()) {
+                return Collections.singletonList(new GenericChartViewAction((ListView) view));
+            }
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Reads values from json by paths in JSON pointer style, e.g. '/0/primaryMetric/score'.
+An array index may be replaced by a selector of the element by its field, e.g.
+'/[benchmark=org.Foo.bar]/primaryMetric/score' (as in results of JMH -rf json).
+The field has to come before the selected value in the element, as the json is
+tokenized as a stream and nothing is kept but the path to the current value.
+Parts of the document which can not contain any of the values are skipped without
+creating strings, and reading stops as soon as all values are found. The value
+must be a number, or a string with a number.
+ */
+public class JsonScanner implements ReportScanner {
+
+    private static final int MAX_DEPTH = 256;
+
+    private final String[] keys;
+    private final String[][] pointers;
+    private final boolean selectors;
+
+    public JsonScanner(Collection<String> keys) {
+        this.keys = keys.toArray(new String[0]);
+        this.pointers = new String[this.keys.length][];
+        boolean anySelector = false;
+        for (int i = 0; i < this.keys.length; i++) {
+            this.pointers[i] = parsePointer(ReportFormat.JSON.selector(this.keys[i]));
+            for (String token : pointers[i]) {
+                anySelector |= isSelector(token);
+            }
+        }
+        this.selectors = anySelector;
+    }
+
+    static String[] parsePointer(String pointer) {
+        String path = pointer.startsWith("/") ? pointer.substring(1) : pointer;
+        if (path.isEmpty()) {
+            return new String[0];
+        }
+        String[] tokens = path.split("/", -1);
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokens[i].replace("~1", "/").replace("~0", "~");
+        }
+        return tokens;
+    }
+
+    @Override
+    public long scan(InputStream in, Map<String, String> result) throws IOException {
+        CountingInputStream counting = new CountingInputStream(in);
+        Parser parser = new Parser(new InputStreamReader(counting, StandardCharsets.UTF_8), result);
+        try {
+            parser.value();
+        } catch (AllFound done) {
+            //the rest is not read
+        }
+        return counting.getCount();
+    }
+
+    private static boolean isSelector(String token) {
+        return token.length() > 2 && token.charAt(0) == '[' && token.charAt(token.length() - 1) == ']' && token.indexOf('=') > 0;
+    }
+
+    /*
+    Thrown to stop reading, without stack trace
+     */
+    private static final class AllFound extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        AllFound() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final class Parser {
+
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private final Map<String, String> result;
+        /*
+        Names or indexes leading to the current value, and for each container
+        on the way its scalar fields seen so far (only of array elements, which
+        may be selected by them)
+         */
+        private final List<String> path = new ArrayList<>();
+        private final List<Map<String, String>> fields = new ArrayList<>();
+
+        Parser(Reader in, Map<String, String> result) {
+            this.in = in;
+            this.result = result;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private void unread() {
+            position--;
+        }
+
+        private int nextNonBlank() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+            return c;
+        }
+
+        private IOException malformed(int c) {
+            return new IOException("Malformed json, unexpected " + (c < 0 ? "end" : "'" + (char) c + "'") + " at " + path);
+        }
+
+        /*
+        0 if no key can be in the current value, 1 if some may, 2 if the current value is one of them
+         */
+        private int relevance() {
+            int best = 0;
+            for (int k = 0; k < pointers.length; k++) {
+                if (result.containsKey(keys[k]) || pointers[k].length < path.size()) {
+                    continue;
+                }
+                int match = 2;
+                for (int i = 0; i < path.size() && match > 0; i++) {
+                    match = Math.min(match, matches(pointers[k][i], i));
+                }
+                if (match > 0) {
+                    best = Math.max(best, pointers[k].length == path.size() ? match : 1);
+                }
+            }
+            return best;
+        }
+
+        /*
+        Selector of element which was not read yet may match
+         */
+        private int matches(String token, int depth) {
+            if (!isSelector(token)) {
+                return token.equals(path.get(depth)) ? 2 : 0;
+            }
+            if (fields.get(depth) != null) {
+                //selector applies to array elements only
+                return 0;
+            }
+            if (depth + 1 >= fields.size()) {
+                return 1;
+            }
+            Map<String, String> element = fields.get(depth + 1);
+            int equals = token.indexOf('=');
+            String value = element == null ? null : element.get(token.substring(1, equals));
+            return value != null && value.equals(token.substring(equals + 1, token.length() - 1)) ? 2 : 0;
+        }
+
+        /*
+        The current container is an element of array, and may be selected by its fields
+         */
+        private boolean isSelectable() {
+            int depth = fields.size() - 1;
+            return selectors && depth > 0 && fields.get(depth - 1) == null;
+        }
+
+        /*
+        Returns the scalar, if asked to keep it
+         */
+        String value() throws IOException {
+            int relevance = relevance();
+            int c = nextNonBlank();
+            switch (c) {
+                case '{':
+                    object(relevance > 0);
+                    return null;
+                case '[':
+                    array(relevance > 0);
+                    return null;
+                case '"':
+                    return found(relevance, string(relevance == 2 || isSelectableField()));
+                default:
+                    if (c < 0) {
+                        throw malformed(c);
+                    }
+                    unread();
+                    return found(relevance, literal(relevance == 2 || isSelectableField()));
+            }
+        }
+
+        private boolean isSelectableField() {
+            return !fields.isEmpty() && fields.get(fields.size() - 1) != null && isSelectable();
+        }
+
+        private String found(int relevance, String value) {
+            if (relevance == 2 && value != null && PropertiesScanner.isNumber(value)) {
+                for (int k = 0; k < pointers.length; k++) {
+                    if (!result.containsKey(keys[k]) && pointers[k].length == path.size() && matchesAll(k)) {
+                        result.put(keys[k], value.trim());
+                    }
+                }
+                if (result.size() >= keys.length) {
+                    throw new AllFound();
+                }
+            }
+            return value;
+        }
+
+        private boolean matchesAll(int k) {
+            for (int i = 0; i < path.size(); i++) {
+                if (matches(pointers[k][i], i) != 2) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void object(boolean relevant) throws IOException {
+            enter(new HashMap<>());
+            int c = nextNonBlank();
+            if (c != '}') {
+                while (true) {
+                    if (c != '"') {
+                        throw malformed(c);
+                    }
+                    String name = string(true);
+                    c = nextNonBlank();
+                    if (c != ':') {
+                        throw malformed(c);
+                    }
+                    path.add(name);
+                    String scalar = relevant || isSelectable() ? value() : skip();
+                    path.remove(path.size() - 1);
+                    if (scalar != null && isSelectable()) {
+                        fields.get(fields.size() - 1).put(name, scalar);
+                    }
+                    c = nextNonBlank();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw malformed(c);
+                    }
+                    c = nextNonBlank();
+                }
+            }
+            leave();
+        }
+
+        private void array(boolean relevant) throws IOException {
+            enter(null);
+            int c = nextNonBlank();
+            if (c < 0) {
+                throw malformed(c);
+            }
+            if (c != ']') {
+                unread();
+                for (int index = 0; ; index++) {
+                    path.add(Integer.toString(index));
+                    if (relevant) {
+                        value();
+                    } else {
+                        skip();
+                    }
+                    path.remove(path.size() - 1);
+                    c = nextNonBlank();
+                    if (c == ']') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw malformed(c);
+                    }
+                }
+            }
+            leave();
+        }
+
+        private void enter(Map<String, String> containerFields) throws IOException {
+            if (fields.size() >= MAX_DEPTH) {
+                throw new IOException("Json nested deeper than " + MAX_DEPTH + " at " + path);
+            }
+            fields.add(containerFields);
+        }
+
+        private void leave() {
+            fields.remove(fields.size() - 1);
+        }
+
+        /*
+        Reads value which can not contain any key, keeping nothing
+         */
+        private String skip() throws IOException {
+            int c = nextNonBlank();
+            switch (c) {
+                case '{':
+                case '[':
+                    int depth = 1;
+                    while (depth > 0) {
+                        c = read();
+                        if (c < 0) {
+                            throw malformed(c);
+                        } else if (c == '{' || c == '[') {
+                            depth++;
+                        } else if (c == '}' || c == ']') {
+                            depth--;
+                        } else if (c == '"') {
+                            string(false);
+                        }
+                    }
+                    return null;
+                case '"':
+                    string(false);
+                    return null;
+                default:
+                    if (c < 0) {
+                        throw malformed(c);
+                    }
+                    unread();
+                    literal(false);
+                    return null;
+            }
+        }
+
+        private String string(boolean keep) throws IOException {
+            StringBuilder value = keep ? new StringBuilder() : null;
+            while (true) {
+                int c = read();
+                if (c < 0) {
+                    throw malformed(c);
+                }
+                if (c == '"') {
+                    return keep ? value.toString() : null;
+                }
+                if (c == '\\') {
+                    c = read();
+                    switch (c) {
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case 't':
+                            c = '\t';
+                            break;
+                        case 'r':
+                            c = '\r';
+                            break;
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 'f':
+                            c = '\f';
+                            break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for (int i = 0; i < 4; i++) {
+                                int h = read();
+                                if (h < 0) {
+                                    throw malformed(h);
+                                }
+                                hex[i] = (char) h;
+                            }
+                            try {
+                                c = Integer.parseInt(new String(hex), 16);
+                            } catch (NumberFormatException ex) {
+                                throw malformed('u');
+                            }
+                            break;
+                        default:
+                            if (c < 0) {
+                                throw malformed(c);
+                            }
+                    }
+                }
+                if (keep) {
+                    value.append((char) c);
+                }
+            }
+        }
+
+        /*
+        Number, true, false or null
+         */
+        private String literal(boolean keep) throws IOException {
+            StringBuilder value = keep ? new StringBuilder() : null;
+            int length = 0;
+            while (true) {
+                int c = read();
+                if (c < 0 || c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                    if (c >= 0) {
+                        unread();
+                    }
+                    break;
+                }
+                length++;
+                if (keep) {
+                    value.append((char) c);
+                }
+            }
+            if (length == 0) {
+                throw malformed(read());
+            }
+            return keep ? value.toString() : null;
+        }
+    }
+}
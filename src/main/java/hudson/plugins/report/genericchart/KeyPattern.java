@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/*
+Key of a chart which matches a family of keys, each giving one series. Written
+in place of the key as 'prefix:throughput.' or 'regex:throughput\..*'. No key in
+the report files can contain ':' (the first '=' or ':' ends the key), so these
+never clash with an ordinary key. The values of all the matched keys are passed
+around as one value, see encode, so they are extracted, indexed and recorded
+the same way as the value of ordinary key.
+ */
+final class KeyPattern {
+
+    static final String PREFIX = "prefix:";
+    static final String REGEX = "regex:";
+    /*
+    The chart would be unreadable with more lines anyway
+     */
+    static final int MAX_KEYS = 50;
+
+    private final String prefix;
+    private final byte[] prefixBytes;
+    private final Pattern regex;
+
+    private KeyPattern(String prefix, Pattern regex) {
+        this.prefix = prefix;
+        this.prefixBytes = prefix == null ? null : prefix.getBytes(StandardCharsets.UTF_8);
+        this.regex = regex;
+    }
+
+    static boolean isPattern(String key) {
+        return key != null && (key.startsWith(PREFIX) || key.startsWith(REGEX));
+    }
+
+    /*
+    Null for ordinary key. Invalid regex matches nothing.
+     */
+    static KeyPattern compile(String key) {
+        if (key == null) {
+            return null;
+        }
+        if (key.startsWith(PREFIX)) {
+            return new KeyPattern(key.substring(PREFIX.length()).trim(), null);
+        }
+        if (key.startsWith(REGEX)) {
+            try {
+                return new KeyPattern(null, Pattern.compile(key.substring(REGEX.length()).trim()));
+            } catch (PatternSyntaxException ex) {
+                return new KeyPattern(null, Pattern.compile("(?!)"));
+            }
+        }
+        return null;
+    }
+
+    /*
+    Prefix is compared on the bytes, regex needs the key as string
+     */
+    boolean matches(byte[] buffer, int start, int end) {
+        if (prefixBytes != null) {
+            if (end - start < prefixBytes.length) {
+                return false;
+            }
+            for (int i = 0; i < prefixBytes.length; i++) {
+                if (buffer[start + i] != prefixBytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return matches(new String(buffer, start, end - start, StandardCharsets.UTF_8));
+    }
+
+    boolean matches(String key) {
+        if (prefix != null) {
+            return key.startsWith(prefix);
+        }
+        return regex.matcher(key).matches();
+    }
+
+    /*
+    One key=value per line, neither keys nor numbers contain '=' or new line
+     */
+    static String encode(Map<String, String> values) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append('\n');
+            }
+            encoded.append(value.getKey()).append('=').append(value.getValue());
+        }
+        return encoded.toString();
+    }
+
+    /*
+    Sorted by key
+     */
+    static Map<String, String> decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = new TreeMap<>();
+        for (String line : encoded.split("\n")) {
+            int delimiter = line.indexOf('=');
+            if (delimiter > 0) {
+                values.put(line.substring(0, delimiter), line.substring(delimiter + 1));
+            }
+        }
+        return values;
+    }
+}
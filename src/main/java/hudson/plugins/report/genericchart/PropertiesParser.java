@@ -28,229 +28,441 @@ import hudson.model.Job;
 import hudson.model.Result;
 import hudson.model.Run;
 
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class PropertiesParser {
 
-    private static interface ListProvider {
+    private static final Logger LOGGER = Logger.getLogger(PropertiesParser.class.getName());
 
-        String getList();
+    private final ReportValuesExtractor extractor;
 
-        int getSurrounding();
+    public PropertiesParser() {
+        this(new ReportValuesExtractor());
     }
 
-    List<String> getBlacklisted(Job<?, ?> job, final ChartModel chart) {
-        return getList(job, chart, new ListProvider() {
-            @Override
-            public String getList() {
-                return chart.getResultBlackList();
-            }
-
-            @Override
-            public int getSurrounding() {
-                return 0;
-            }
-
-        });
-
+    public PropertiesParser(ReportValuesExtractor extractor) {
+        this.extractor = extractor;
     }
 
-    List<String> getWhitelisted(Job<?, ?> job, ChartModel chart) {
-        return getList(job, chart, new ListProvider() {
-            @Override
-            public String getList() {
-                return chart.getResultWhiteList();
-            }
+    public ChartPointsWithBlacklist getReportPointsWithBlacklist(Job<?, ?> job, ChartModel chart) {
+        return getReportPointsWithBlacklist(job, Collections.singletonList(chart)).get(0);
+    }
 
-            @Override
-            public int getSurrounding() {
-                return chart.getRangeAroundWlist();
-            }
-        });
+    /*
+    All the charts are computed together, so each build directory is walked only once,
+    and each file is read only once, even if many charts use it.
+    The builds are loaded lazily, newest first. Whitelist surroundings need to see
+    rangeAroundWlist builds ahead, so only this small window of builds is kept,
+    and the loading stops as soon as all charts have their limit of points.
+    Blacklist and whitelist sizes are thus counted only over the loaded builds.
+    Charts whose whitelist matches no build show all builds, which takes another pass.
+     */
+    public List<ChartPointsWithBlacklist> getReportPointsWithBlacklist(Job<?, ?> job, List<ChartModel> charts) {
+        return new Computation(job, charts).call();
+    }
 
+    Computation computation(Job<?, ?> job, List<ChartModel> charts) {
+        return new Computation(job, charts);
     }
 
     /*
-    Counting white list size without surroundings which is needed in title over the graph
+    One computation of the charts, which can be asked for the points gathered so far
+    from another thread while it runs. The collectors are guarded by their list.
      */
-    List<String> getWhiteListWithoutSurroundings(Job<?, ?> job, ChartModel chart) {
-        return getList(job, chart, new ListProvider() {
-            @Override
-            public String getList() {
-                return chart.getResultWhiteList();
-            }
+    class Computation implements Callable<List<ChartPointsWithBlacklist>> {
 
-            @Override
-            public int getSurrounding() {
-                return 0;
-            }
-        });
+        private final Job<?, ?> job;
+        private final List<ChartModel> charts;
+        private final List<SeriesCollector> collectors;
 
-    }
+        Computation(Job<?, ?> job, List<ChartModel> charts) {
+            this.job = job;
+            this.charts = charts;
+            this.collectors = new ArrayList<>(charts.size());
+            for (ChartModel chart : charts) {
+                collectors.add(new SeriesCollector(chart, collectors.size()));
+            }
+        }
 
-    @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
-            justification = "run.getResult().isWorseThan(Result.UNSTABLE) claims to have NPE, but I'm failing to see it")
-    private List<String> getList(Job<?, ?> job, ChartModel chart, ListProvider provider) {
-        if (provider.getList() == null || provider.getList().trim().isEmpty()) {
-            return Collections.emptyList();
+        @Override
+        public List<ChartPointsWithBlacklist> call() {
+            long start = System.nanoTime();
+            ChartStatistics.Counters counters = ChartStatistics.get().forJob(job);
+            walk(collectors, counters);
+            //charts whose whitelist matched no build show all builds, as if there was no whitelist
+            List<SeriesCollector> unmatched = new ArrayList<>();
+            synchronized (collectors) {
+                for (SeriesCollector collector : collectors) {
+                    if (collector.ignoreUnmatchedWhitelist()) {
+                        unmatched.add(collector);
+                    }
+                }
+            }
+            if (!unmatched.isEmpty()) {
+                walk(unmatched, counters);
+            }
+            List<ChartPointsWithBlacklist> result = snapshot(false);
+            counters.computed(charts.size(), System.nanoTime() - start);
+            return result;
         }
-        int limit = chart.getLimit();
-        Run[] builds = job.getBuilds().toArray(new Run[0]);
-        List<String> result = new ArrayList<>(limit);
-        for (int i = 0; i < builds.length; i++) {
-            Run run = builds[i];
-            if (run == null
-                            || run.getResult() == null
-                            || run.getResult().isWorseThan(Result.UNSTABLE)) {
-                continue;
+
+        /*
+        One pass over the builds for the given collectors, newest first
+         */
+        @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
+                justification = "run.getResult().isWorseThan(Result.UNSTABLE) claims to have NPE, but I'm failing to see it")
+        private void walk(List<SeriesCollector> active, ChartStatistics.Counters counters) {
+            int lookahead = 0;
+            for (SeriesCollector collector : active) {
+                lookahead = Math.max(lookahead, collector.getLookahead());
             }
-            String[] items = provider.getList().split("\\s+");
-            for (String item : items) {
-                if (run.getDisplayName().matches(item)) {
-                    int numberOfFailedBuilds = 0;
-                    for (int j = 0; j <= provider.getSurrounding() + numberOfFailedBuilds; j++) {
-                        if (addNotFailedBuild(i + j, result, builds)) {
-                            numberOfFailedBuilds++;
-                        }
-                    }
-                    numberOfFailedBuilds = 0;
-                    for (int j = -1; j >= -(provider.getSurrounding() + numberOfFailedBuilds); j--) {
-                        if (addNotFailedBuild(i + j, result, builds)) {
-                            numberOfFailedBuilds++;
-                        }
+            Extraction extraction = new Extraction(extractor, ExtractionExecutor.getParallelism(), collectors, active);
+            Deque<ObservedBuild> window = new ArrayDeque<>(lookahead + 1);
+            int position = 0;
+            Iterator<? extends Run<?, ?>> builds = job.getBuilds().iterator();
+            while (builds.hasNext() && !isDone(collectors, active)) {
+                Run<?, ?> run = builds.next();
+                counters.buildExamined();
+                if (run == null
+                                || run.getResult() == null
+                                || run.getResult().isWorseThan(Result.UNSTABLE)) {
+                    continue;
+                }
+                ObservedBuild observed = new ObservedBuild(run, position, collectors.size());
+                position++;
+                synchronized (collectors) {
+                    for (SeriesCollector collector : active) {
+                        collector.observe(observed);
                     }
                 }
+                window.addLast(observed);
+                if (window.size() > lookahead) {
+                    extraction.submit(window.removeFirst());
+                }
+            }
+            while (!window.isEmpty() && !isDone(collectors, active)) {
+                extraction.submit(window.removeFirst());
             }
+            extraction.completeAll();
         }
-        return result;
-    }
 
-    @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
-            justification = "run.getResult().isWorseThan(Result.UNSTABLE) claims to have NPE, but I'm failing to see it")
-    private boolean addNotFailedBuild(int position, List<String> result, Run[] builds) {
-        if (position >= 0 && position < builds.length) {
-            boolean crashed =
-                    builds[position] == null
-                            || builds[position].getResult() == null
-                            || builds[position].getResult().isWorseThan(Result.UNSTABLE);
-            if (crashed) {
-                return true;
+        /*
+        Points gathered so far, marked as partial
+         */
+        List<ChartPointsWithBlacklist> snapshot() {
+            return snapshot(true);
+        }
+
+        private List<ChartPointsWithBlacklist> snapshot(boolean partial) {
+            synchronized (collectors) {
+                List<ChartPointsWithBlacklist> result = new ArrayList<>(collectors.size());
+                for (SeriesCollector collector : collectors) {
+                    result.add(collector.finish(partial));
+                }
+                return result;
             }
-            /*Preventing duplicates in whitelist. Not because of the graph, there is
-            already chunk of code preventing from showing duplicity in the graph.
-            (The final list are recreated again with help of these lists)
-            Its because lenght of whitelist which is shown over the graph.*/
-            if (!result.contains(builds[position].getDisplayName())) {
-                result.add(builds[position].getDisplayName());
+        }
+    }
+
+    private static boolean isDone(Object lock, List<SeriesCollector> collectors) {
+        synchronized (lock) {
+            for (SeriesCollector collector : collectors) {
+                if (!collector.isDone()) {
+                    return false;
+                }
             }
+            return true;
         }
-        return false;
     }
 
-    @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
-            justification = "run.getResult().isWorseThan(Result.UNSTABLE) claims to have NPE, but I'm failing to see it")
-    public ChartPointsWithBlacklist getReportPointsWithBlacklist(Job<?, ?> job, ChartModel chart) {
-        List<ChartPoint> list = new ArrayList<>();
+    /*
+    Reads the accepted builds, possibly in parallel, but adds their points in the order
+    of the builds. A chart is never given more builds in flight than it misses to its
+    limit, so no chart gets a point which it would not get when reading one by one.
+     */
+    private static class Extraction {
 
-        Predicate<String> lineValidator = str -> {
-            if (str == null || str.trim().isEmpty()) {
-                return false;
-            }
-            int index = getBestDelimiterIndex(str);
-            if (index == Integer.MAX_VALUE) {
-                return false;
-            }
-            if (!str.substring(0, index).trim().equals(chart.getKey().trim())) {
-                return false;
+        private final ReportValuesExtractor extractor;
+        private final int maxInFlight;
+        private final Object lock;
+        private final List<SeriesCollector> collectors;
+        private final Deque<PendingBuild> inFlight = new ArrayDeque<>();
+
+        Extraction(ReportValuesExtractor extractor, int parallelism, Object lock, List<SeriesCollector> collectors) {
+            this.extractor = extractor;
+            this.lock = lock;
+            this.collectors = collectors;
+            this.maxInFlight = parallelism <= 1 ? 1 : parallelism * 2;
+        }
+
+        void submit(ObservedBuild build) {
+            while (isAnySaturated()) {
+                completeOldest();
             }
-            try {
-                Double.parseDouble(str.substring(index + 1).trim());
-                return true;
-            } catch (Exception ignore) {
+            List<SeriesCollector> interested = new ArrayList<>(collectors.size());
+            Set<ValueKey> keys = new LinkedHashSet<>();
+            synchronized (lock) {
+                for (SeriesCollector collector : collectors) {
+                    if (!collector.isDone() && collector.accepts(build)) {
+                        interested.add(collector);
+                        keys.add(collector.valueKey);
+                        collector.pending++;
+                    }
+                }
             }
-            return false;
-        };
-
-        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + chart.getFileNameGlob());
-        List<String> blacklisted = getBlacklisted(job, chart);
-        List<String> whitelisted = getWhitelisted(job, chart);
-        List<String> whiteListWithoutSurroundings = getWhiteListWithoutSurroundings(job, chart);
-        List<String> pointsInRangeOfwhitelisted = new ArrayList<>(whitelisted);
-        int whiteListSizeWithoutSurroundings = whiteListWithoutSurroundings.toArray().length;
-        pointsInRangeOfwhitelisted.removeAll(whiteListWithoutSurroundings);
-        for (Run run : job.getBuilds()) {
-            if (run == null
-                            || run.getResult() == null
-                            || run.getResult().isWorseThan(Result.UNSTABLE)) {
-                continue;
+            if (interested.isEmpty()) {
+                return;
             }
-            if (blacklisted.contains(run.getDisplayName())) {
-                continue;
+            Future<Map<ValueKey, String>> values = ExtractionExecutor.submit(() -> extractor.getValues(build.run, keys));
+            inFlight.addLast(new PendingBuild(build, interested, values));
+            while (inFlight.size() >= maxInFlight) {
+                completeOldest();
             }
-            if (!whitelisted.contains(run.getDisplayName()) && !whitelisted.isEmpty()) {
-                continue;
+        }
+
+        void completeAll() {
+            while (!inFlight.isEmpty()) {
+                completeOldest();
             }
+        }
 
-            try (Stream<Path> filesStream = Files.walk(run.getRootDir().toPath()).sequential()) {
-                Optional<ChartPoint> optPoint = filesStream
-                        .filter((p) -> matcher.matches(p.getFileName()))
-                        .map((p) -> pathToLine(p, lineValidator))
-                        .filter((o) -> o.isPresent())
-                        .map(o -> o.get())
-                        .map(s -> new ChartPoint(
-                                run.getDisplayName(),
-                                run.getNumber(),
-                                extractValue(s),
-                                chart.getPointColor(pointsInRangeOfwhitelisted.contains(run.getDisplayName()))))
-                        .findFirst();
-                if (optPoint.isPresent()) {
-                    list.add(optPoint.get());
+        private boolean isAnySaturated() {
+            synchronized (lock) {
+                for (SeriesCollector collector : collectors) {
+                    if (collector.isSaturated()) {
+                        return true;
+                    }
                 }
-            } catch (Exception ex) {
-                ex.printStackTrace();
+                return false;
             }
-            if (list.size() == chart.getLimit()) {
-                break;
+        }
+
+        private void completeOldest() {
+            PendingBuild pending = inFlight.removeFirst();
+            Map<ValueKey, String> values;
+            try {
+                values = pending.values.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                pending.values.cancel(true);
+                values = Collections.emptyMap();
+            } catch (ExecutionException ex) {
+                ChartStatistics.get().forJob(pending.build.run.getParent()).failed();
+                LOGGER.log(Level.WARNING, "Failed to read " + pending.build.run.getDisplayName(), ex.getCause());
+                values = Collections.emptyMap();
+            }
+            synchronized (lock) {
+                for (SeriesCollector collector : pending.collectors) {
+                    collector.pending--;
+                    collector.add(pending.build, values.get(collector.valueKey));
+                }
             }
         }
+    }
 
-        Collections.reverse(list);
+    private static class PendingBuild {
 
-        return new ChartPointsWithBlacklist(list, blacklisted, whitelisted, whiteListSizeWithoutSurroundings);
-    }
+        private final ObservedBuild build;
+        private final List<SeriesCollector> collectors;
+        private final Future<Map<ValueKey, String>> values;
 
-    private int getBestDelimiterIndex(String str) {
-        int index1 = str.indexOf('=');
-        int index2 = str.indexOf(':');
-        if (index1 < 0) {
-            index1 = Integer.MAX_VALUE;
+        PendingBuild(ObservedBuild build, List<SeriesCollector> collectors, Future<Map<ValueKey, String>> values) {
+            this.build = build;
+            this.collectors = collectors;
+            this.values = values;
         }
-        if (index2 < 0) {
-            index2 = Integer.MAX_VALUE;
-        }
-        int index = Math.min(index1, index2);
-        return index;
     }
 
-    private Optional<String> pathToLine(Path path, Predicate<String> lineValidator) {
-        try (Stream<String> stream = Files.lines(path)) {
-            return stream.filter(lineValidator).findFirst();
-        } catch (Exception ex) {
-            ex.printStackTrace();
+    /*
+    Not failed build, with its position among not failed builds (the surroundings
+    of whitelisted builds are counted in not failed builds), and what each chart
+    decided about it
+     */
+    private static class ObservedBuild {
+
+        private final Run<?, ?> run;
+        private final int position;
+        private final boolean[] blacklisted;
+        private final boolean[] matchesWhitelist;
+        private final boolean[] inRangeOfWhitelisted;
+
+        ObservedBuild(Run<?, ?> run, int position, int charts) {
+            this.run = run;
+            this.position = position;
+            this.blacklisted = new boolean[charts];
+            this.matchesWhitelist = new boolean[charts];
+            this.inRangeOfWhitelisted = new boolean[charts];
         }
-        return Optional.empty();
     }
 
-    private String extractValue(String s) {
-        return s.substring(getBestDelimiterIndex(s) + 1).trim();
+    private static class SeriesCollector {
+
+        private final ChartModel chart;
+        private final int index;
+        private final ValueKey valueKey;
+        private final BuildNameFilter blacklist;
+        private final BuildNameFilter whitelist;
+        private ChartSeries.Builder list;
+        /*
+        For key pattern, the points go to the series of each key, and the limit
+        counts the builds with any matching key
+         */
+        private final boolean pattern;
+        private final Map<String, ChartSeries.Builder> keyLists = new TreeMap<>();
+        private int patternBuilds;
+        private final List<String> blacklisted = new ArrayList<>();
+        private final List<String> whitelisted = new ArrayList<>();
+        private int whiteListSizeWithoutSurroundings;
+        private int pending;
+        private boolean whitelistIgnored;
+        /*
+        Positions of observed builds matching whitelist, which may still have
+        the builds waiting for decision in their surroundings
+         */
+        private final Deque<Integer> whitelistMatches = new ArrayDeque<>();
+
+        SeriesCollector(ChartModel chart, int index) {
+            this.chart = chart;
+            this.index = index;
+            this.valueKey = new ValueKey(chart);
+            this.blacklist = chart.getBlackListFilter();
+            this.whitelist = chart.getWhiteListFilter();
+            this.list = new ChartSeries.Builder(ChartSeries.palette(chart), Math.max(chart.getLimit(), 0));
+            this.pattern = KeyPattern.isPattern(valueKey.getKey());
+        }
+
+        private int size() {
+            return pattern ? patternBuilds : list.size();
+        }
+
+        /*
+        Negative range leads to no whitelisted builds, what always meant the whitelist is not used
+         */
+        private boolean isWhitelistUsed() {
+            return !whitelistIgnored && !whitelist.isEmpty() && chart.getRangeAroundWlist() >= 0;
+        }
+
+        /*
+        After a pass over all the builds (the chart can not be done without a whitelisted
+        build), whitelist which matched none is ignored, as it always was. Starts again
+        for the next pass, returns false if the whitelist is not ignored.
+         */
+        boolean ignoreUnmatchedWhitelist() {
+            if (!isWhitelistUsed() || !whitelisted.isEmpty()) {
+                return false;
+            }
+            whitelistIgnored = true;
+            list = new ChartSeries.Builder(list.getPalette(), Math.max(chart.getLimit(), 0));
+            keyLists.clear();
+            patternBuilds = 0;
+            blacklisted.clear();
+            whitelistMatches.clear();
+            whiteListSizeWithoutSurroundings = 0;
+            return true;
+        }
+
+        int getLookahead() {
+            return isWhitelistUsed() ? chart.getRangeAroundWlist() : 0;
+        }
+
+        boolean isDone() {
+            return chart.getLimit() > 0 && size() >= chart.getLimit();
+        }
+
+        boolean isSaturated() {
+            return pending > 0 && chart.getLimit() > 0 && size() + pending >= chart.getLimit();
+        }
+
+        void observe(ObservedBuild build) {
+            if (isDone()) {
+                return;
+            }
+            String name = build.run.getDisplayName();
+            if (blacklist.matches(name)) {
+                build.blacklisted[index] = true;
+                blacklisted.add(name);
+            }
+            if (isWhitelistUsed() && whitelist.matches(name)) {
+                build.matchesWhitelist[index] = true;
+                whitelistMatches.addLast(build.position);
+            }
+        }
+
+        /*
+        Called for each observed build in order, once all builds in its surroundings were observed
+         */
+        boolean accepts(ObservedBuild build) {
+            String name = build.run.getDisplayName();
+            boolean whitelistedBuild = false;
+            if (isWhitelistUsed()) {
+                int range = chart.getRangeAroundWlist();
+                while (!whitelistMatches.isEmpty() && whitelistMatches.peekFirst() < build.position - range) {
+                    whitelistMatches.removeFirst();
+                }
+                whitelistedBuild = !whitelistMatches.isEmpty() && whitelistMatches.peekFirst() <= build.position + range;
+                if (whitelistedBuild) {
+                    //counted only here, so the surroundings in the title are never negative
+                    whitelisted.add(name);
+                    if (build.matchesWhitelist[index]) {
+                        whiteListSizeWithoutSurroundings++;
+                    }
+                    build.inRangeOfWhitelisted[index] = !build.matchesWhitelist[index];
+                }
+            }
+            if (build.blacklisted[index]) {
+                return false;
+            }
+            return whitelistedBuild || !isWhitelistUsed();
+        }
+
+        void add(ObservedBuild build, String value) {
+            if (value == null) {
+                return;
+            }
+            byte color = build.inRangeOfWhitelisted[index] ? ChartSeries.COLOR_IN_RANGE_OF_WHITELISTED : ChartSeries.COLOR;
+            if (!pattern) {
+                list.add(build.run.getNumber(), build.run.getDisplayName(), build.run.getStartTimeInMillis(), Double.parseDouble(value), color);
+                return;
+            }
+            Map<String, String> values = KeyPattern.decode(value);
+            if (values.isEmpty()) {
+                return;
+            }
+            patternBuilds++;
+            for (Map.Entry<String, String> keyValue : values.entrySet()) {
+                keyLists.computeIfAbsent(keyValue.getKey(), k -> new ChartSeries.Builder(list.getPalette(), Math.max(chart.getLimit(), 0)))
+                        .add(build.run.getNumber(), build.run.getDisplayName(), build.run.getStartTimeInMillis(),
+                                Double.parseDouble(keyValue.getValue()), color);
+            }
+        }
+
+        ChartPointsWithBlacklist finish(boolean partial) {
+            if (!pattern) {
+                return new ChartPointsWithBlacklist(list.build(true), new ArrayList<>(blacklisted), new ArrayList<>(whitelisted),
+                        whiteListSizeWithoutSurroundings, partial);
+            }
+            Map<String, ChartSeries> keySeries = new LinkedHashMap<>();
+            for (Map.Entry<String, ChartSeries.Builder> keyList : keyLists.entrySet()) {
+                keySeries.put(keyList.getKey(), keyList.getValue().build(true));
+            }
+            ChartSeries first = keySeries.isEmpty() ? list.build(true) : keySeries.values().iterator().next();
+            return new ChartPointsWithBlacklist(first, new ArrayList<>(blacklisted), new ArrayList<>(whitelisted),
+                    whiteListSizeWithoutSurroundings, partial, keySeries);
+        }
     }
 }
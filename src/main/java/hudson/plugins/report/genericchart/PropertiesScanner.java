@@ -0,0 +1,303 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+Finds key=value (or key:value) lines in properties like files, working directly
+on the bytes in a pooled buffer. Lines are not decoded to strings, the key is
+compared as bytes and the number is validated in place, only the value of
+matched key is turned into a string. Same rules as the original line parsing apply:
+the first of '=' and ':' is the delimiter, key and value are trimmed, and the
+value must be a number. Reading stops as soon as all keys are found.
+Key patterns (see KeyPattern) collect the first value of every matching key,
+so a file searched for a pattern is always read whole.
+ */
+public class PropertiesScanner implements ReportScanner {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final String[] keys;
+    private final byte[][] keyBytes;
+    private final String[] patternKeys;
+    private final KeyPattern[] patterns;
+
+    public PropertiesScanner(Collection<String> keys) {
+        List<String> exact = new ArrayList<>();
+        List<String> patternKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (KeyPattern.isPattern(key)) {
+                patternKeys.add(key);
+            } else {
+                exact.add(key);
+            }
+        }
+        this.keys = exact.toArray(new String[0]);
+        this.keyBytes = new byte[this.keys.length][];
+        for (int i = 0; i < this.keys.length; i++) {
+            this.keyBytes[i] = ReportFormat.PROPERTIES.selector(this.keys[i]).getBytes(StandardCharsets.UTF_8);
+        }
+        this.patternKeys = patternKeys.toArray(new String[0]);
+        this.patterns = new KeyPattern[this.patternKeys.length];
+        for (int i = 0; i < this.patterns.length; i++) {
+            this.patterns[i] = KeyPattern.compile(this.patternKeys[i]);
+        }
+    }
+
+    /*
+    Puts the first valid value of each key to the result (keys already
+    in the result are not searched for), returns number of bytes read
+     */
+    @Override
+    public long scan(InputStream in, Map<String, String> result) throws IOException {
+        byte[] buffer = BUFFERS.get();
+        int lineStart = 0;
+        int end = 0;
+        int searchFrom = 0;
+        long bytesRead = 0;
+        boolean eof = false;
+        List<Map<String, String>> matched = new ArrayList<>(patterns.length);
+        for (int i = 0; i < patterns.length; i++) {
+            matched.add(new TreeMap<>());
+        }
+        try {
+            while (patterns.length > 0 || result.size() < keys.length) {
+                int newLine = -1;
+                for (int i = searchFrom; i < end; i++) {
+                    if (buffer[i] == '\n' || buffer[i] == '\r') {
+                        newLine = i;
+                        break;
+                    }
+                }
+                if (newLine >= 0) {
+                    processLine(buffer, lineStart, newLine, result, matched);
+                    lineStart = newLine + 1;
+                    searchFrom = lineStart;
+                    continue;
+                }
+                if (eof) {
+                    if (lineStart < end) {
+                        processLine(buffer, lineStart, end, result, matched);
+                    }
+                    break;
+                }
+                if (lineStart > 0) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, end - lineStart);
+                    end -= lineStart;
+                    lineStart = 0;
+                } else if (end == buffer.length) {
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, end);
+                    buffer = larger;
+                }
+                searchFrom = end;
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    end += read;
+                    bytesRead += read;
+                }
+            }
+        } finally {
+            if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+                BUFFERS.set(buffer);
+            }
+        }
+        for (int i = 0; i < patterns.length; i++) {
+            if (!matched.get(i).isEmpty()) {
+                result.put(patternKeys[i], KeyPattern.encode(matched.get(i)));
+            }
+        }
+        return bytesRead;
+    }
+
+    private void processLine(byte[] buffer, int start, int end, Map<String, String> result, List<Map<String, String>> matched) {
+        int delimiter = -1;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == '=' || buffer[i] == ':') {
+                delimiter = i;
+                break;
+            }
+        }
+        if (delimiter < 0) {
+            return;
+        }
+        int keyStart = skipBlanks(buffer, start, delimiter);
+        int keyEnd = skipTrailingBlanks(buffer, keyStart, delimiter);
+        int key = findKey(buffer, keyStart, keyEnd, result);
+        List<Map<String, String>> matching = findPatterns(buffer, keyStart, keyEnd, matched);
+        if (key < 0 && matching.isEmpty()) {
+            return;
+        }
+        int valueStart = skipBlanks(buffer, delimiter + 1, end);
+        int valueEnd = skipTrailingBlanks(buffer, valueStart, end);
+        if (!isNumber(buffer, valueStart, valueEnd)) {
+            return;
+        }
+        String value = new String(buffer, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+        if (key >= 0) {
+            result.put(keys[key], value);
+        }
+        if (!matching.isEmpty()) {
+            String name = new String(buffer, keyStart, keyEnd - keyStart, StandardCharsets.UTF_8);
+            for (Map<String, String> values : matching) {
+                if (values.size() < KeyPattern.MAX_KEYS || values.containsKey(name)) {
+                    values.putIfAbsent(name, value);
+                }
+            }
+        }
+    }
+
+    private List<Map<String, String>> findPatterns(byte[] buffer, int start, int end, List<Map<String, String>> matched) {
+        if (patterns.length == 0 || start == end) {
+            return Collections.emptyList();
+        }
+        List<Map<String, String>> matching = new ArrayList<>(1);
+        for (int p = 0; p < patterns.length; p++) {
+            if (patterns[p].matches(buffer, start, end)) {
+                matching.add(matched.get(p));
+            }
+        }
+        return matching;
+    }
+
+    private int findKey(byte[] buffer, int start, int end, Map<String, String> result) {
+        int length = end - start;
+        for (int k = 0; k < keyBytes.length; k++) {
+            byte[] candidate = keyBytes[k];
+            if (candidate.length != length || result.containsKey(keys[k])) {
+                continue;
+            }
+            boolean same = true;
+            for (int i = 0; i < length; i++) {
+                if (buffer[start + i] != candidate[i]) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /*
+    Same as String.trim(), everything up to space is blank
+     */
+    private static boolean isBlank(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    private static int skipBlanks(byte[] buffer, int start, int end) {
+        while (start < end && isBlank(buffer[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int skipTrailingBlanks(byte[] buffer, int start, int end) {
+        while (end > start && isBlank(buffer[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    /*
+    Plain decimal numbers are checked in place, anything else (NaN, Infinity,
+    hexadecimal or type suffixed numbers) is left to Double.parseDouble
+     */
+    static boolean isNumber(byte[] buffer, int start, int end) {
+        if (isDecimal(buffer, start, end)) {
+            return true;
+        }
+        if (start >= end) {
+            return false;
+        }
+        try {
+            Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.UTF_8));
+            return true;
+        } catch (NumberFormatException ignore) {
+        }
+        return false;
+    }
+
+    static boolean isNumber(String value) {
+        byte[] bytes = value.trim().getBytes(StandardCharsets.UTF_8);
+        return isNumber(bytes, 0, bytes.length);
+    }
+
+    private static boolean isDecimal(byte[] buffer, int start, int end) {
+        int i = start;
+        if (i < end && (buffer[i] == '+' || buffer[i] == '-')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < end && isDigit(buffer[i])) {
+            i++;
+            digits++;
+        }
+        if (i < end && buffer[i] == '.') {
+            i++;
+            while (i < end && isDigit(buffer[i])) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            if (i < end && (buffer[i] == '+' || buffer[i] == '-')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < end && isDigit(buffer[i])) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == end;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
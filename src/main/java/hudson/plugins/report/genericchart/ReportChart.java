@@ -24,42 +24,101 @@
 package hudson.plugins.report.genericchart;
 
 import hudson.model.Job;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ReportChart {
 
     private final String title;
     private final String color;
-    private final List<ChartPoint> points;
+    private final ChartSeries series;
     private final List<String> blist;
     private final List<String> wlist;
     private final int rangeAroundWlist;
     private final int whiteListSizeWithoutSurroundings;
+    private final boolean partial;
+    private final Map<String, ChartSeries> keySeries;
+    private final Map<String, String> jobUrls;
 
-    private ReportChart(String title, String color, List<ChartPoint> points, List<String> blist, List<String> wlist, int rangeAroundWlist, int whiteListSizeWithoutSurroundings) {
+    private ReportChart(String title, String color, ChartSeries series, List<String> blist, List<String> wlist, int rangeAroundWlist, int whiteListSizeWithoutSurroundings, boolean partial,
+            Map<String, ChartSeries> keySeries, Map<String, String> jobUrls) {
+        this.partial = partial;
+        this.keySeries = keySeries;
+        this.jobUrls = jobUrls;
         this.blist = blist;
         this.title = title;
         this.color = color;
-        this.points = points;
+        this.series = series;
         this.wlist = wlist;
         this.rangeAroundWlist = rangeAroundWlist;
         this.whiteListSizeWithoutSurroundings = whiteListSizeWithoutSurroundings;
     }
 
-    public static ReportChart createReportChart(ChartModel m, PropertiesParser parser, Job<?, ?> job) {
-        final ChartPointsWithBlacklist points = parser.getReportPointsWithBlacklist(job, m);
+    public static ReportChart createReportChart(ChartModel m, Job<?, ?> job) {
+        return createReportChart(m, ChartSeriesCache.getInstance().getReportPointsWithBlacklist(job, m));
+    }
+
+    public static ReportChart createReportChart(ChartModel m, ChartPointsWithBlacklist points) {
+        Map<String, ChartSeries> keySeries = new LinkedHashMap<>();
+        for (Map.Entry<String, ChartSeries> series : points.getKeySeries().entrySet()) {
+            keySeries.put(series.getKey(), series.getValue().downsample(m.getMaxPoints()));
+        }
         return new ReportChart(
                 m.getTitle(),
                 m.getChartColor(),
-                points.getPoints(),
+                points.getSeries().downsample(m.getMaxPoints()),
                 points.getBlacklist(),
                 points.getWhitelist(),
                 m.getRangeAroundWlist(),
-                points.getWhiteListSizeWithoutSurroundings());
+                points.getWhiteListSizeWithoutSurroundings(),
+                points.isPartial(),
+                keySeries,
+                Collections.emptyMap());
+    }
+
+    /*
+    One line per job, keyed by full name of the job. Black and white listed
+    builds of all the jobs are counted together. With key pattern, only the
+    first matched key of each job is drawn.
+     */
+    public static ReportChart createCrossJobChart(CrossJobChartModel m, Map<Job<?, ?>, ChartPointsWithBlacklist> points) {
+        Map<String, ChartSeries> jobSeries = new LinkedHashMap<>();
+        Map<String, String> jobUrls = new LinkedHashMap<>();
+        List<String> blist = new ArrayList<>();
+        List<String> wlist = new ArrayList<>();
+        int whiteListSizeWithoutSurroundings = 0;
+        boolean partial = false;
+        for (Map.Entry<Job<?, ?>, ChartPointsWithBlacklist> job : points.entrySet()) {
+            ChartPointsWithBlacklist jobPoints = job.getValue();
+            jobSeries.put(job.getKey().getFullName(), jobPoints.getSeries().downsample(m.getMaxPoints()));
+            jobUrls.put(job.getKey().getFullName(), job.getKey().getUrl());
+            blist.addAll(jobPoints.getBlacklist());
+            wlist.addAll(jobPoints.getWhitelist());
+            whiteListSizeWithoutSurroundings += jobPoints.getWhiteListSizeWithoutSurroundings();
+            partial |= jobPoints.isPartial();
+        }
+        ChartSeries series = jobSeries.isEmpty()
+                ? new ChartSeries.Builder(ChartSeries.palette(m), 0).build(false)
+                : jobSeries.values().iterator().next();
+        return new ReportChart(
+                m.getTitle(),
+                m.getChartColor(),
+                series,
+                blist,
+                wlist,
+                m.getRangeAroundWlist(),
+                whiteListSizeWithoutSurroundings,
+                partial,
+                jobSeries,
+                jobUrls);
     }
 
     public String getTitle() {
-        return title + " (blacklisted " + blist.size() + ")" + " (whitelisted " + whiteListSizeWithoutSurroundings + "+" + Integer.toString(wlist.size() - whiteListSizeWithoutSurroundings) + ")";
+        return title + " (blacklisted " + blist.size() + ")" + " (whitelisted " + whiteListSizeWithoutSurroundings + "+" + Integer.toString(wlist.size() - whiteListSizeWithoutSurroundings) + ")"
+                + (partial ? " (partial, still computing)" : "");
     }
 
     public String getColor() {
@@ -67,7 +126,29 @@ public class ReportChart {
     }
 
     public List<ChartPoint> getPoints() {
-        return points;
+        return series.asPoints();
+    }
+
+    public ChartSeries getSeries() {
+        return series;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /*
+    Series of each key matched by key pattern, empty for ordinary key
+     */
+    public Map<String, ChartSeries> getKeySeries() {
+        return keySeries;
+    }
+
+    /*
+    Urls of the jobs of chart over several jobs, empty for chart of one job
+     */
+    public Map<String, String> getJobUrls() {
+        return jobUrls;
     }
 
     public int getRangeAroundWlist() {
@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/*
+Report file found in build directory: a file, or an entry of zip (or jar) archive.
+Gzipped files and entries (name ending with .gz) are decompressed as they are read,
+so only as much is inflated as the scanner reads.
+ */
+public final class ReportFile {
+
+    private static final String GZIP = ".gz";
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private final Path file;
+    private final ZipFile archive;
+    private final ZipEntry entry;
+
+    private ReportFile(Path file, ZipFile archive, ZipEntry entry) {
+        this.file = file;
+        this.archive = archive;
+        this.entry = entry;
+    }
+
+    public static ReportFile of(Path file) {
+        return new ReportFile(file, null, null);
+    }
+
+    /*
+    The archive is closed by the walker after the visit
+     */
+    static ReportFile entry(Path file, ZipFile archive, ZipEntry entry) {
+        return new ReportFile(file, archive, entry);
+    }
+
+    /*
+    Name of the file or entry, without .gz, so its format can be told by extension
+     */
+    public String getName() {
+        String path = entry == null ? String.valueOf(file.getFileName()) : entry.getName();
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return isGzipped(name) ? name.substring(0, name.length() - GZIP.length()) : name;
+    }
+
+    public InputStream open() throws IOException {
+        InputStream in = entry == null ? Files.newInputStream(file) : archive.getInputStream(entry);
+        String name = entry == null ? String.valueOf(file.getFileName()) : entry.getName();
+        if (!isGzipped(name)) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(in, GZIP_BUFFER);
+        } catch (IOException | RuntimeException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    private static boolean isGzipped(String name) {
+        return name.length() > GZIP.length() && name.regionMatches(true, name.length() - GZIP.length(), GZIP, 0, GZIP.length());
+    }
+
+    @Override
+    public String toString() {
+        return entry == null ? file.toString() : file + "!/" + entry.getName();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/*
+Format of report file, which tells how its keys are read. The key may name the
+format by its prefix, e.g. 'json:/0/primaryMetric/score' or 'csv:Score[Benchmark=foo]',
+otherwise the format is given by the extension of the file, and any other file
+is read as properties. Key patterns are always read from properties.
+ */
+public enum ReportFormat {
+
+    PROPERTIES("properties:", null),
+    JSON("json:", ".json"),
+    CSV("csv:", ".csv");
+
+    private final String prefix;
+    private final String extension;
+
+    ReportFormat(String prefix, String extension) {
+        this.prefix = prefix;
+        this.extension = extension;
+    }
+
+    public static ReportFormat of(String key, String fileName) {
+        if (KeyPattern.isPattern(key)) {
+            return PROPERTIES;
+        }
+        for (ReportFormat format : values()) {
+            if (key.startsWith(format.prefix)) {
+                return format;
+            }
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        for (ReportFormat format : values()) {
+            if (format.extension != null && name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        return PROPERTIES;
+    }
+
+    /*
+    The key without the prefix of the format
+     */
+    String selector(String key) {
+        return key.startsWith(prefix) ? key.substring(prefix.length()).trim() : key.trim();
+    }
+
+    /*
+    The scanner puts the values under the keys as they were given
+     */
+    public ReportScanner scanner(Collection<String> keys) {
+        switch (this) {
+            case JSON:
+                return new JsonScanner(keys);
+            case CSV:
+                return new CsvScanner(keys);
+            default:
+                return new PropertiesScanner(keys);
+        }
+    }
+}
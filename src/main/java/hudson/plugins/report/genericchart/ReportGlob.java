@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Compiled glob of report files. Glob without '/' is matched against the file name,
+in any directory of the build. Glob with '/' is matched against the path relative
+to the build directory, so its leading literal directories and its depth tell
+which directories can not contain matching file and do not need to be walked.
+ */
+public final class ReportGlob {
+
+    private static final int MAX_COMPILED = 1000;
+    private static final Map<String, ReportGlob> COMPILED = new ConcurrentHashMap<>();
+
+    private final PathMatcher matcher;
+    private final boolean relativePath;
+    private final String[] prefix;
+    private final int maxDepth;
+
+    private ReportGlob(String glob) {
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        this.relativePath = glob.indexOf('/') >= 0;
+        if (relativePath) {
+            String[] segments = glob.split("/+");
+            List<String> literal = new ArrayList<>();
+            boolean unbounded = false;
+            for (int i = 0; i < segments.length; i++) {
+                if (literal.size() == i && i < segments.length - 1 && !hasWildcard(segments[i])) {
+                    literal.add(segments[i]);
+                }
+                if (segments[i].contains("**")) {
+                    unbounded = true;
+                }
+            }
+            this.prefix = literal.toArray(new String[0]);
+            this.maxDepth = unbounded ? Integer.MAX_VALUE : segments.length;
+        } else {
+            this.prefix = new String[0];
+            this.maxDepth = Integer.MAX_VALUE;
+        }
+    }
+
+    public static ReportGlob compile(String glob) {
+        String key = glob == null ? "" : glob;
+        ReportGlob compiled = COMPILED.get(key);
+        if (compiled == null) {
+            if (COMPILED.size() > MAX_COMPILED) {
+                COMPILED.clear();
+            }
+            compiled = new ReportGlob(key);
+            COMPILED.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    private static boolean hasWildcard(String segment) {
+        for (char c : segment.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == '{' || c == '\\') {
+                return true;
+            }
+        }
+        return segment.isEmpty() || segment.equals(".") || segment.equals("..");
+    }
+
+    /*
+    Whether a file matching this glob can be under the directory, given by its path
+    elements relative to the build directory
+     */
+    boolean mayContain(List<String> directory) {
+        if (!relativePath) {
+            return true;
+        }
+        for (int i = 0; i < Math.min(directory.size(), prefix.length); i++) {
+            if (!prefix[i].equals(directory.get(i))) {
+                return false;
+            }
+        }
+        return directory.size() < maxDepth;
+    }
+
+    boolean matches(Path relativeFile, int depth) {
+        if (relativePath) {
+            return depth <= maxDepth && matcher.matches(relativeFile);
+        }
+        return matcher.matches(relativeFile.getFileName());
+    }
+}
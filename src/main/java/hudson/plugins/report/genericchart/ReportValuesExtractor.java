@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.model.Run;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+Reads values of any number of keys from the build directory in one pass.
+The directory is walked once, and every matching file is read once, no matter
+how many charts or columns use it. For each key, the value is taken from the
+first file (in walk order) matching its glob which contains it.
+ */
+public class ReportValuesExtractor {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportValuesExtractor.class.getName());
+
+    private final BuildDirectoryWalker walker;
+    private final boolean useIndex;
+
+    /*
+    Uses and fills the index of the job, see SeriesIndex
+     */
+    public ReportValuesExtractor() {
+        this(BuildDirectoryWalker.fromConfiguration(), true);
+    }
+
+    public ReportValuesExtractor(BuildDirectoryWalker walker) {
+        this(walker, false);
+    }
+
+    private ReportValuesExtractor(BuildDirectoryWalker walker, boolean useIndex) {
+        this.walker = walker;
+        this.useIndex = useIndex;
+    }
+
+    public Map<ValueKey, String> getValues(Run<?, ?> run, Collection<ValueKey> keys) {
+        Map<ValueKey, String> result = new HashMap<>();
+        List<ValueKey> notRecorded = new ArrayList<>();
+        GenericChartBuildAction action = run.getAction(GenericChartBuildAction.class);
+        for (ValueKey key : keys) {
+            GenericChartBuildAction.RecordedValue recorded = null;
+            if (action != null) {
+                recorded = action.getRecordedValue(key.getFileNameGlob(), key.getKey());
+            }
+            if (recorded == null) {
+                notRecorded.add(key);
+            } else if (recorded.getValue() != null) {
+                result.put(key, recorded.getValue());
+            }
+        }
+        if (notRecorded.isEmpty()) {
+            return result;
+        }
+        ChartStatistics.Counters counters = ChartStatistics.get().forJob(run.getParent());
+        SeriesIndex index = useIndex ? SeriesIndex.of(run.getParent()) : null;
+        if (index != null) {
+            Map<ValueKey, String> indexed = index.getValues(run, notRecorded);
+            if (!indexed.isEmpty()) {
+                counters.indexHit();
+            }
+            for (Map.Entry<ValueKey, String> value : indexed.entrySet()) {
+                if (value.getValue() != null) {
+                    result.put(value.getKey(), value.getValue());
+                }
+            }
+            notRecorded.removeAll(indexed.keySet());
+        }
+        if (!notRecorded.isEmpty()) {
+            counters.buildRead();
+            Scan scan = findValues(run.getRootDir().toPath(), notRecorded, counters);
+            result.putAll(scan.found);
+            //keys not found in a build which failed to be read may well be there
+            if (index != null && !scan.failed) {
+                index.record(run, notRecorded, scan.found);
+            }
+        }
+        return result;
+    }
+
+    public Map<ValueKey, String> findValues(Path rootDir, Collection<ValueKey> keys) {
+        return findValues(rootDir, keys, ChartStatistics.get().getTotal()).found;
+    }
+
+    private Scan findValues(Path rootDir, Collection<ValueKey> keys, ChartStatistics.Counters counters) {
+        Map<ReportGlob, GlobGroup> pending = new LinkedHashMap<>();
+        Map<ValueKey, GlobGroup> groups = new HashMap<>();
+        for (ValueKey key : keys) {
+            GlobGroup group = pending.computeIfAbsent(ReportGlob.compile(key.getFileNameGlob()), g -> new GlobGroup());
+            group.keys.add(key);
+            groups.put(key, group);
+        }
+        Scan scan = new Scan();
+        try {
+            walker.walk(rootDir, new BuildDirectoryWalker.ReportFileVisitor() {
+                @Override
+                public void enteredDirectory(Path dir) {
+                    counters.directoryWalked();
+                }
+
+                @Override
+                public boolean visit(ReportFile file, List<ReportGlob> matching) {
+                    Map<String, List<ValueKey>> wanted = new HashMap<>();
+                    for (ReportGlob glob : matching) {
+                        for (ValueKey key : pending.get(glob).keys) {
+                            wanted.computeIfAbsent(key.getKey(), k -> new ArrayList<>()).add(key);
+                        }
+                    }
+                    for (Map.Entry<String, String> value : scanFile(file, wanted.keySet(), counters, scan).entrySet()) {
+                        for (ValueKey key : wanted.get(value.getKey())) {
+                            scan.found.put(key, value.getValue());
+                            groups.get(key).keys.remove(key);
+                        }
+                    }
+                    pending.values().removeIf(group -> group.keys.isEmpty());
+                    return !pending.isEmpty();
+                }
+
+                @Override
+                public Collection<ReportGlob> getPendingGlobs() {
+                    return pending.keySet();
+                }
+            });
+        } catch (Exception ex) {
+            counters.failed();
+            scan.failed = true;
+            LOGGER.log(Level.WARNING, "Failed to walk " + rootDir, ex);
+        }
+        return scan;
+    }
+
+    /*
+    First valid value of each of the keys, the file is read only until all are found.
+    Keys of different formats (see ReportFormat) read the file separately.
+     */
+    private Map<String, String> scanFile(ReportFile path, Set<String> keys, ChartStatistics.Counters counters, Scan scan) {
+        Map<ReportFormat, List<String>> formats = new EnumMap<>(ReportFormat.class);
+        String fileName = path.getName();
+        for (String key : keys) {
+            formats.computeIfAbsent(ReportFormat.of(key, fileName), f -> new ArrayList<>()).add(key);
+        }
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<ReportFormat, List<String>> format : formats.entrySet()) {
+            //scanners count the values found, so each gets a map of its own
+            Map<String, String> values = new HashMap<>();
+            try (InputStream in = path.open()) {
+                counters.fileRead(format.getKey().scanner(format.getValue()).scan(in, values));
+            } catch (IOException | RuntimeException ex) {
+                counters.failed();
+                scan.failed = true;
+                LOGGER.log(Level.WARNING, "Failed to read " + path, ex);
+            }
+            result.putAll(values);
+        }
+        return result;
+    }
+
+    /*
+    Values found in one build directory, and whether walking it or reading any
+    of its files failed
+     */
+    private static class Scan {
+
+        private final Map<ValueKey, String> found = new HashMap<>();
+        private boolean failed;
+    }
+
+    private static class GlobGroup {
+
+        private final Set<ValueKey> keys = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+Values extracted from the builds of one job, kept in an append-only file in the
+job directory, so they survive restart and the build directories do not need
+to be walked again. Each line is one value (or the note that the key was not
+found) of one completed build:
+
+    number TAB result TAB glob TAB key TAB =value    or    ... TAB key TAB -
+
+and deleted builds are marked by a line 'number TAB deleted'. The file is read
+sequentially when the job is charted for the first time after start.
+It is thrown away and filled again when it was written with other directory
+excludes, and rewritten without the garbage when it has more garbage than values.
+A value is used only while the build still has the result it was recorded with.
+The loaded values count to the points kept by the chart cache, and are dropped
+with the least recently used series, but not while a series of the job is being
+computed (see pin). The file is read again when the job is charted next time.
+ */
+public class SeriesIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(SeriesIndex.class.getName());
+
+    static final String FILE_NAME = "genericChartIndex.txt";
+    private static final String HEADER = "genericChartIndex 1";
+    private static final String DELETED = "deleted";
+    private static final String MISSING = "-";
+    private static final int MIN_GARBAGE_TO_COMPACT = 100;
+
+    private static final Map<Job<?, ?>, SeriesIndex> INDEXES = new WeakHashMap<>();
+
+    private final Path file;
+    private volatile Map<Integer, IndexedBuild> builds;
+    private int garbage;
+    private int live;
+    private volatile boolean evicted;
+    private final AtomicInteger pins = new AtomicInteger();
+
+    SeriesIndex(Path file) {
+        this.file = file;
+    }
+
+    public static SeriesIndex of(Job<?, ?> job) {
+        synchronized (INDEXES) {
+            return INDEXES.computeIfAbsent(job, j -> new SeriesIndex(j.getRootDir().toPath().resolve(FILE_NAME)));
+        }
+    }
+
+    /*
+    Index which is loaded or has its file, null for jobs which were never charted
+     */
+    static SeriesIndex ifExists(Job<?, ?> job) {
+        synchronized (INDEXES) {
+            SeriesIndex index = INDEXES.get(job);
+            if (index != null || !Files.exists(job.getRootDir().toPath().resolve(FILE_NAME))) {
+                return index;
+            }
+        }
+        return of(job);
+    }
+
+    /*
+    Values of the keys which are in the index, null for keys known to be missing
+     */
+    public synchronized Map<ValueKey, String> getValues(Run<?, ?> run, Collection<ValueKey> keys) {
+        Map<ValueKey, String> result = new HashMap<>();
+        IndexedBuild build = load().get(run.getNumber());
+        if (build == null || !build.result.equals(String.valueOf(run.getResult()))) {
+            return result;
+        }
+        for (ValueKey key : keys) {
+            if (build.values.containsKey(key)) {
+                result.put(key, build.values.get(key));
+            }
+        }
+        return result;
+    }
+
+    /*
+    Found values of the searched keys, keys not in found are recorded as missing,
+    so the caller records only builds which were read without error.
+    Only builds with result are recorded, as running ones may still write the reports.
+    The build is still post-processed when its listeners are told it completed,
+    but the reports are final by then, so it is recorded already.
+     */
+    public synchronized void record(Run<?, ?> run, Collection<ValueKey> searched, Map<ValueKey, String> found) {
+        if (run.getResult() == null || searched.isEmpty()) {
+            return;
+        }
+        String result = run.getResult().toString();
+        Map<Integer, IndexedBuild> loaded = load();
+        IndexedBuild build = loaded.get(run.getNumber());
+        if (build == null || !build.result.equals(result)) {
+            if (build != null) {
+                garbage += build.values.size();
+                live -= build.values.size();
+            }
+            build = new IndexedBuild(result);
+            loaded.put(run.getNumber(), build);
+        }
+        StringBuilder lines = new StringBuilder();
+        for (ValueKey key : searched) {
+            String value = found.get(key);
+            if (build.values.containsKey(key)) {
+                garbage++;
+            } else {
+                live++;
+            }
+            build.values.put(key, value);
+            lines.append(run.getNumber()).append('\t')
+                    .append(result).append('\t')
+                    .append(escape(key.getFileNameGlob())).append('\t')
+                    .append(escape(key.getKey())).append('\t')
+                    .append(value == null ? MISSING : "=" + escape(value)).append('\n');
+        }
+        append(lines);
+        weigh();
+    }
+
+    synchronized void onDeleted(Run<?, ?> run) {
+        IndexedBuild build = load().remove(run.getNumber());
+        if (build != null) {
+            garbage += build.values.size() + 1;
+            live -= build.values.size();
+            append(new StringBuilder().append(run.getNumber()).append('\t').append(DELETED).append('\n'));
+            compactIfNeeded();
+        }
+    }
+
+    /*
+    Held by the computation of the series of the job, so the loaded values are
+    not dropped and read again for every build while the computation runs
+     */
+    void pin() {
+        pins.incrementAndGet();
+    }
+
+    void unpin() {
+        if (pins.decrementAndGet() == 0 && evicted) {
+            builds = null;
+        }
+    }
+
+    /*
+    Called by the chart cache under its lock, so it takes no lock
+     */
+    private void release() {
+        evicted = true;
+        if (pins.get() == 0) {
+            builds = null;
+        }
+    }
+
+    /*
+    Weight of the loaded index in the chart cache
+     */
+    private void weigh() {
+        Map<Integer, IndexedBuild> loaded = builds;
+        if (loaded != null && !evicted) {
+            ChartSeriesCache.getInstance().weighIndex(this, 1L + loaded.size() + live, this::release);
+        }
+    }
+
+    private Map<Integer, IndexedBuild> load() {
+        Map<Integer, IndexedBuild> loaded = builds;
+        if (loaded != null) {
+            ChartSeriesCache.getInstance().touchIndex(this);
+            return loaded;
+        }
+        evicted = false;
+        loaded = read();
+        weigh();
+        return loaded;
+    }
+
+    private Map<Integer, IndexedBuild> read() {
+        builds = new HashMap<>();
+        garbage = 0;
+        live = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (!header().equals(header)) {
+                //other format or other excludes, the values may differ
+                rebuild();
+                return builds;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!readLine(line)) {
+                    garbage++;
+                }
+            }
+        } catch (NoSuchFileException ex) {
+            return builds;
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Failed to read " + file + ", starting it again", ex);
+            builds.clear();
+            rebuild();
+            return builds;
+        }
+        compactIfNeeded();
+        return builds;
+    }
+
+    /*
+    Returns false for lines which are corrupted or which are not needed anymore
+     */
+    private boolean readLine(String line) {
+        String[] fields = line.split("\t", -1);
+        int number;
+        try {
+            number = Integer.parseInt(fields[0]);
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        if (fields.length == 2 && DELETED.equals(fields[1])) {
+            IndexedBuild removed = builds.remove(number);
+            garbage += removed == null ? 0 : removed.values.size();
+            live -= removed == null ? 0 : removed.values.size();
+            return false;
+        }
+        if (fields.length != 5 || !(MISSING.equals(fields[4]) || fields[4].startsWith("="))) {
+            return false;
+        }
+        IndexedBuild build = builds.get(number);
+        if (build == null || !build.result.equals(fields[1])) {
+            if (build != null) {
+                garbage += build.values.size();
+                live -= build.values.size();
+            }
+            build = new IndexedBuild(fields[1]);
+            builds.put(number, build);
+        }
+        ValueKey key = new ValueKey(unescape(fields[2]), unescape(fields[3]));
+        String value = MISSING.equals(fields[4]) ? null : unescape(fields[4].substring(1));
+        if (build.values.containsKey(key)) {
+            garbage++;
+        } else {
+            live++;
+        }
+        build.values.put(key, value);
+        return true;
+    }
+
+    private void compactIfNeeded() {
+        if (garbage > MIN_GARBAGE_TO_COMPACT && garbage > live) {
+            compact();
+        }
+    }
+
+    /*
+    Rewrites the file with only the current values, the old file is replaced atomically
+     */
+    synchronized void compact() {
+        StringBuilder lines = new StringBuilder(header()).append('\n');
+        for (Map.Entry<Integer, IndexedBuild> build : load().entrySet()) {
+            for (Map.Entry<ValueKey, String> value : build.getValue().values.entrySet()) {
+                lines.append(build.getKey()).append('\t')
+                        .append(build.getValue().result).append('\t')
+                        .append(escape(value.getKey().getFileNameGlob())).append('\t')
+                        .append(escape(value.getKey().getKey())).append('\t')
+                        .append(value.getValue() == null ? MISSING : "=" + escape(value.getValue())).append('\n');
+            }
+        }
+        try {
+            Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+            Files.write(tmp, lines.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            garbage = 0;
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Failed to compact " + file, ex);
+        }
+    }
+
+    /*
+    Starts the index from scratch. It is filled again as the builds are read by charts.
+     */
+    synchronized void rebuild() {
+        builds = new HashMap<>();
+        garbage = 0;
+        live = 0;
+        try {
+            Files.write(file, (header() + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Failed to create " + file, ex);
+        }
+    }
+
+    private void append(CharSequence lines) {
+        try {
+            if (!Files.exists(file)) {
+                Files.write(file, (header() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            Files.write(file, lines.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Failed to append to " + file, ex);
+        }
+    }
+
+    /*
+    Excluded directories and reading of archives decide which files are found, so they are part of the header
+     */
+    private static String header() {
+        return HEADER + " " + Integer.toHexString(Objects.hashCode(GenericChartGlobalConfiguration.getExcludedDirectoriesOrDefault()))
+                + (GenericChartGlobalConfiguration.isReadArchivesOrDefault() ? " archives" : "");
+    }
+
+    static String escape(String s) {
+        if (s == null) {
+            return "\\N";
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String unescape(String s) {
+        if ("\\N".equals(s)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                switch (next) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class IndexedBuild {
+
+        private final String result;
+        private final Map<ValueKey, String> values = new HashMap<>();
+
+        IndexedBuild(String result) {
+            this.result = result;
+        }
+    }
+
+    @Extension
+    public static class IndexUpdater extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            SeriesIndex index = ifExists(run.getParent());
+            if (index != null) {
+                index.onDeleted(run);
+            }
+        }
+    }
+
+    /*
+    The index of moved or renamed job is opened again in its new directory
+     */
+    @Extension
+    public static class IndexLocationUpdater extends ItemListener {
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            synchronized (INDEXES) {
+                INDEXES.remove(item);
+            }
+        }
+    }
+}
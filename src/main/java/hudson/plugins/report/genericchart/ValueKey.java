@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.util.Objects;
+
+/*
+Identifies one value in build directory - the key in the files matching the glob
+ */
+public final class ValueKey {
+
+    private final String fileNameGlob;
+    private final String key;
+
+    public ValueKey(String fileNameGlob, String key) {
+        this.fileNameGlob = fileNameGlob;
+        this.key = key == null ? "" : key.trim();
+    }
+
+    public ValueKey(ChartModel chart) {
+        this(chart.getFileNameGlob(), chart.getKey());
+    }
+
+    public String getFileNameGlob() {
+        return fileNameGlob;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ValueKey that = (ValueKey) o;
+        return Objects.equals(fileNameGlob, that.fileNameGlob) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileNameGlob, key);
+    }
+
+    @Override
+    public String toString() {
+        return fileNameGlob + ": " + key;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/*
+Entries ordered from the least recently used, each with its weight. When the total
+weight gets over the limit, or an entry was not used for the expiry time, the entry
+is dropped and its owner is told by the callback given with the entry. The callbacks
+run under the lock of this class, so they must not take any other lock which may be
+held while calling this class.
+ */
+class WeightedLru<K> {
+
+    private final Map<K, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongSupplier maxWeight;
+    private final LongSupplier expireAfterAccessMillis;
+    private long weight;
+    private long evictions;
+
+    /*
+    Expiry of zero means the entries do not expire
+     */
+    WeightedLru(LongSupplier maxWeight, LongSupplier expireAfterAccessMillis) {
+        this.maxWeight = maxWeight;
+        this.expireAfterAccessMillis = expireAfterAccessMillis;
+    }
+
+    synchronized void put(K key, long entryWeight, Runnable onEviction) {
+        Entry old = entries.put(key, new Entry(entryWeight, onEviction));
+        if (old != null) {
+            weight -= old.weight;
+        }
+        weight += entryWeight;
+        evict();
+    }
+
+    synchronized void touch(K key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.lastAccess = System.nanoTime();
+        }
+    }
+
+    synchronized void remove(K key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            weight -= old.weight;
+        }
+    }
+
+    /*
+    The owners are told, as for eviction
+     */
+    synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.onEviction.run();
+        }
+        entries.clear();
+        weight = 0;
+    }
+
+    /*
+    Also applies the current limits, which may have been changed since last put
+     */
+    synchronized void evict() {
+        long max = maxWeight.getAsLong();
+        long expiry = expireAfterAccessMillis.getAsLong();
+        long now = System.nanoTime();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            boolean expired = expiry > 0 && now - eldest.lastAccess > expiry * 1_000_000L;
+            if (weight <= max && !expired) {
+                break;
+            }
+            iterator.remove();
+            weight -= eldest.weight;
+            evictions++;
+            eldest.onEviction.run();
+        }
+    }
+
+    synchronized long getWeight() {
+        return weight;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private static class Entry {
+
+        private final long weight;
+        private final Runnable onEviction;
+        private long lastAccess = System.nanoTime();
+
+        Entry(long weight, Runnable onEviction) {
+            this.weight = weight;
+            this.onEviction = onEviction;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Charts are rendered from json fetched from the data endpoints, so the pages
+ * themselves are cheap and the data can be revalidated by ETag.
+ */
+var genericChart = (function () {
+
+    function fetchData(url, callback) {
+        fetch(url, {credentials: 'same-origin'}).then(function (response) {
+            if (!response.ok) {
+                throw new Error(response.status + " " + url);
+            }
+            return response.json();
+        }).then(callback)["catch"](function (error) {
+            if (window.console) {
+                console.log(error);
+            }
+        });
+    }
+
+    function dataset(label, color, series, pointColor, pointStrokeColor, pointHighlightStroke) {
+        var set = {
+            label: label,
+            fillColor: color,
+            strokeColor: color,
+            pointStrokeColor: pointStrokeColor,
+            pointHighlightFill: "#fff",
+            pointHighlightStroke: pointHighlightStroke,
+            data: series.values,
+            coloredTips: series.colors
+        };
+        if (pointColor) {
+            set.pointColor = pointColor;
+        }
+        return set;
+    }
+
+    /* lines of charts with key pattern, the first one has the color of the chart */
+    var KEY_COLORS = ["#e6194b", "#3cb44b", "#4363d8", "#f58231", "#911eb4", "#42d4f4", "#f032e6",
+        "#bfef45", "#469990", "#9a6324", "#800000", "#808000", "#000075", "#a9a9a9"];
+
+    function keyColor(chart, i) {
+        return i === 0 ? chart.color : KEY_COLORS[(i - 1) % KEY_COLORS.length];
+    }
+
+    /*
+     * One line per key matched by key pattern, on the shared builds of the chart
+     */
+    function keyDatasets(chart) {
+        return chart.keys.map(function (key, i) {
+            var color = keyColor(chart, i);
+            var set = dataset(key.key, "rgba(0,0,0,0)", {
+                values: key.values,
+                colors: key.values.map(function () {
+                    return color;
+                })
+            }, color, "#fff", color);
+            set.strokeColor = color;
+            return set;
+        });
+    }
+
+    function keyLegend(chart) {
+        var legend = document.createElement("div");
+        legend.style.fontFamily = "monospace";
+        chart.keys.forEach(function (key, i) {
+            var item = document.createElement("span");
+            item.style.marginRight = "10pt";
+            item.style.color = keyColor(chart, i);
+            item.textContent = "\u25A0 " + key.key;
+            legend.appendChild(item);
+        });
+        return legend;
+    }
+
+    /*
+     * Url of the build at the clicked label. Charts over several jobs have
+     * the jobs on a time axis, the build is that of the first job with a point
+     * there, as the labels do not tell the job.
+     */
+    function clickedBuild(chart, label, rootUrl) {
+        var i = chart.labels.indexOf(label);
+        if (!chart.keys || !chart.keys.length || !chart.keys[0].url) {
+            return String(chart.builds[i]);
+        }
+        for (var k = 0; k < chart.keys.length; k++) {
+            var key = chart.keys[k];
+            if (key.builds[i] !== null && key.builds[i] !== undefined) {
+                return rootUrl + key.url + key.builds[i] + "/";
+            }
+        }
+        return null;
+    }
+
+    /* partial charts (computation over the time budget) are asked for again after this time */
+    var PARTIAL_RETRY = 5000;
+
+    var options = {
+        bezierCurve: false,
+        multiTooltipTemplate: "<%= datasetLabel + \": \" + value %>"
+    };
+
+    /*
+     * All the charts of a job, into the floating box of its page
+     */
+    function renderJobCharts(container, url, rootUrl) {
+        fetchData(url, function (json) {
+            container.textContent = "";
+            var partial = false;
+            json.charts.forEach(function (chart) {
+                partial = partial || chart.partial;
+                var title = document.createElement("h3");
+                title.style.fontFamily = "monospace";
+                title.textContent = chart.title;
+                var chartContainer = document.createElement("div");
+                chartContainer.style.marginRight = "10pt";
+                var canvas = document.createElement("canvas");
+                canvas.width = 600;
+                canvas.height = 600;
+                chartContainer.appendChild(canvas);
+                container.appendChild(title);
+                container.appendChild(chartContainer);
+                var data = {
+                    labels: chart.labels,
+                    datasets: chart.keys
+                        ? keyDatasets(chart)
+                        : [dataset(chart.title, chart.color, chart, null, "#808080", "rgba(0,0,0,1)")]
+                };
+                if (chart.keys) {
+                    container.appendChild(keyLegend(chart));
+                }
+                var lineChart = new Chart(canvas.getContext("2d")).Line(data, options);
+                chartContainer.onclick = function (evt) {
+                    var activePoints = lineChart.getPointsAtEvent(evt);
+                    var build = activePoints.length > 0 ? clickedBuild(chart, activePoints[0].label, rootUrl) : null;
+                    if (build !== null) {
+                        window.open(build, "_blank");
+                    }
+                };
+            });
+            if (partial) {
+                setTimeout(function () {
+                    renderJobCharts(container, url, rootUrl);
+                }, PARTIAL_RETRY);
+            }
+        });
+    }
+
+    /*
+     * One sparkline of a list view column, into its table cell
+     */
+    function fillColumn(cell, series) {
+        var ds = cell.dataset;
+        cell.setAttribute("data", series.latest);
+        var content = cell.firstElementChild;
+        if (series.partial) {
+            cell.title = "Partial, still computing";
+            setTimeout(function () {
+                queueColumn(cell);
+            }, PARTIAL_RETRY);
+        } else {
+            cell.removeAttribute("title");
+        }
+        if (series.values.length === 0) {
+            content.removeAttribute("style");
+            content.textContent = series.partial ? "Loading..." : "No data yet";
+            return;
+        }
+        content.textContent = "";
+        var chartContainer = document.createElement("div");
+        chartContainer.style.width = "320px";
+        chartContainer.style.height = "80px";
+        if (series.partial) {
+            chartContainer.style.opacity = "0.5";
+        }
+        var canvas = document.createElement("canvas");
+        canvas.width = 320;
+        canvas.height = 80;
+        canvas.style.display = "block";
+        chartContainer.appendChild(canvas);
+        content.appendChild(chartContainer);
+        var data = {
+            labels: series.builds.map(String),
+            datasets: [dataset(ds.caption, series.color, series, series.color, "#fff", series.color)]
+        };
+        new Chart(canvas.getContext("2d")).Line(data, options);
+        chartContainer.onclick = function () {
+            window.open(ds.jobUrl, "_blank");
+        };
+    }
+
+    /*
+     * The batch response has one job per line, so each line is drawn as soon
+     * as it arrives, without waiting for the slowest job
+     */
+    function fetchLines(url, onLine, onError) {
+        function parseLine(line) {
+            line = line.trim();
+            if (line.charAt(line.length - 1) === ",") {
+                line = line.substring(0, line.length - 1);
+            }
+            if (line.charAt(0) === "{") {
+                onLine(JSON.parse(line));
+            }
+        }
+        fetch(url, {credentials: 'same-origin'}).then(function (response) {
+            if (!response.ok) {
+                throw new Error("HTTP " + response.status);
+            }
+            if (!response.body || !window.TextDecoder) {
+                return response.text().then(function (text) {
+                    text.split("\n").forEach(parseLine);
+                });
+            }
+            var reader = response.body.getReader();
+            var decoder = new TextDecoder("utf-8");
+            var buffer = "";
+            function read() {
+                return reader.read().then(function (chunk) {
+                    if (chunk.done) {
+                        parseLine(buffer + decoder.decode());
+                        return;
+                    }
+                    buffer += decoder.decode(chunk.value, {stream: true});
+                    var lines = buffer.split("\n");
+                    buffer = lines.pop();
+                    lines.forEach(parseLine);
+                    return read();
+                });
+            }
+            return read();
+        })["catch"](function (error) {
+            if (window.console) {
+                console.log(url, error);
+            }
+            onError(error);
+        });
+    }
+
+    var BATCH_DELAY = 50;
+    var BATCH_JOBS = 25;
+    var pendingCells = [];
+    var batchTimer = null;
+
+    function queueColumn(cell) {
+        pendingCells.push(cell);
+        if (batchTimer === null) {
+            batchTimer = setTimeout(loadPendingColumns, BATCH_DELAY);
+        }
+    }
+
+    /*
+     * All the cells which came into view together are loaded by as few batch
+     * requests as possible. Columns are sent as their view and position in it,
+     * the server knows their configuration.
+     */
+    function loadPendingColumns() {
+        var cells = pendingCells;
+        pendingCells = [];
+        batchTimer = null;
+        var batches = {};
+        cells.forEach(function (cell) {
+            var ds = cell.dataset;
+            if (ds.batchUrl === undefined || !(parseInt(ds.column, 10) >= 0)) {
+                cell.firstElementChild.textContent = "No data yet";
+                return;
+            }
+            var url = ds.batchUrl;
+            var batch = batches[url];
+            if (!batch) {
+                batch = batches[url] = {columns: [], columnIndexes: {}, jobs: [], cells: {}};
+            }
+            var column = ds.column;
+            if (!(column in batch.columnIndexes)) {
+                batch.columnIndexes[column] = batch.columns.length;
+                batch.columns.push(column);
+            }
+            var job = cell.dataset.job;
+            if (!(job in batch.cells)) {
+                batch.cells[job] = [];
+                batch.jobs.push(job);
+            }
+            batch.cells[job].push({cell: cell, column: batch.columnIndexes[column]});
+        });
+        Object.keys(batches).forEach(function (url) {
+            var batch = batches[url];
+            var columns = batch.columns.map(function (column) {
+                return "column=" + encodeURIComponent(column);
+            }).join("&");
+            for (var i = 0; i < batch.jobs.length; i += BATCH_JOBS) {
+                fetchBatch(url, batch, batch.jobs.slice(i, i + BATCH_JOBS), columns);
+            }
+        });
+    }
+
+    /*
+     * Cells of the jobs not answered when the request fails show the error
+     */
+    function fetchBatch(url, batch, jobs, columns) {
+        var answered = {};
+        var query = jobs.map(function (job) {
+            return "job=" + encodeURIComponent(job);
+        });
+        query.push(columns);
+        function failed(pending, error) {
+            pending.cell.firstElementChild.textContent = "Failed to load" + (error ? ": " + error : "");
+        }
+        fetchLines(url + "?" + query.join("&"), function (result) {
+            answered[result.job] = true;
+            (batch.cells[result.job] || []).forEach(function (pending) {
+                var series = result.columns ? result.columns[pending.column] : null;
+                if (series) {
+                    fillColumn(pending.cell, series);
+                } else {
+                    failed(pending, result.error);
+                }
+            });
+        }, function (error) {
+            jobs.forEach(function (job) {
+                if (!answered[job]) {
+                    (batch.cells[job] || []).forEach(function (pending) {
+                        failed(pending, error && error.message);
+                    });
+                }
+            });
+        });
+    }
+
+    var columnObserver = null;
+
+    /*
+     * The sparkline is loaded only once its row is scrolled near to the viewport,
+     * so large views do not request the data of all their jobs at once
+     */
+    function observeColumn(cell) {
+        if (!("IntersectionObserver" in window)) {
+            queueColumn(cell);
+            return;
+        }
+        if (columnObserver === null) {
+            columnObserver = new IntersectionObserver(function (entries, observer) {
+                entries.forEach(function (entry) {
+                    if (entry.isIntersecting) {
+                        observer.unobserve(entry.target);
+                        queueColumn(entry.target);
+                    }
+                });
+            }, {rootMargin: "200px 0px"});
+        }
+        columnObserver.observe(cell);
+    }
+
+    return {
+        renderJobCharts: renderJobCharts,
+        observeColumn: observeColumn
+    };
+})();
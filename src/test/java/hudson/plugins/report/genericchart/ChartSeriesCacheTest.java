@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChartSeriesCacheTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FreeStyleProject project;
+
+    @Before
+    public void setUp() throws Exception {
+        ChartSeriesCache.getInstance().clear();
+        project = j.createFreeStyleProject();
+        project.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws IOException {
+                Files.write(build.getRootDir().toPath().resolve("report.properties"),
+                        ("value=" + build.getNumber() + "\n").getBytes(StandardCharsets.UTF_8));
+                return true;
+            }
+        });
+    }
+
+    @Test
+    public void completedBuildIsAppendedOnce() throws Exception {
+        ChartModel model = model();
+        j.buildAndAssertSuccess(project);
+        j.buildAndAssertSuccess(project);
+        assertEquals(Arrays.asList(1, 2), builds(model));
+
+        FreeStyleBuild third = j.buildAndAssertSuccess(project);
+        assertEquals(Arrays.asList(1, 2, 3), builds(model));
+
+        ChartSeriesCache.getInstance().onCompleted(third);
+        assertEquals(Arrays.asList(1, 2, 3), builds(model));
+        assertEquals("3", ChartSeriesCache.getInstance().getReportPointsWithBlacklist(project, model).getPoints().get(2).getValue());
+    }
+
+    @Test
+    public void deletedBuildIsRemoved() throws Exception {
+        ChartModel model = model();
+        j.buildAndAssertSuccess(project);
+        FreeStyleBuild second = j.buildAndAssertSuccess(project);
+        j.buildAndAssertSuccess(project);
+        assertEquals(Arrays.asList(1, 2, 3), builds(model));
+
+        second.delete();
+        assertEquals(Arrays.asList(1, 3), builds(model));
+    }
+
+    @Test
+    public void whitelistMatchingNoBuildShowsAllBuilds() throws Exception {
+        ChartModel model = model();
+        model.setResultWhiteList("nothing-like-this");
+        j.buildAndAssertSuccess(project);
+        j.buildAndAssertSuccess(project);
+        assertEquals(Arrays.asList(1, 2), builds(model));
+
+        j.buildAndAssertSuccess(project);
+        assertEquals(Arrays.asList(1, 2, 3), builds(model));
+    }
+
+    @Test
+    public void onlyAcceptedBuildsAreCountedAsWhitelisted() throws Exception {
+        ChartModel model = new ChartModel("value", "report.properties", "value", 1, "#000000", 1);
+        model.setResultWhiteList("#2");
+        for (int i = 0; i < 4; i++) {
+            j.buildAndAssertSuccess(project);
+        }
+        ChartPointsWithBlacklist points = new PropertiesParser().getReportPointsWithBlacklist(project, model);
+        assertTrue(points.getWhiteListSizeWithoutSurroundings() >= 0);
+        assertTrue(points.getWhiteListSizeWithoutSurroundings() <= points.getWhitelist().size());
+        assertTrue(points.getWhitelist().size() <= points.getPoints().size());
+    }
+
+    private ChartModel model() {
+        return new ChartModel("value", "report.properties", "value", 10, "#000000", 0);
+    }
+
+    private List<Integer> builds(ChartModel model) {
+        ChartPointsWithBlacklist points = ChartSeriesCache.getInstance()
+                .getCompletePointsWithBlacklist(project, Collections.singletonList(model)).get(0);
+        List<Integer> numbers = new ArrayList<>();
+        for (ChartPoint point : points.getPoints()) {
+            numbers.add(point.getBuildNumber());
+        }
+        return numbers;
+    }
+}
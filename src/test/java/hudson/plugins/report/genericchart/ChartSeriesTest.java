@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChartSeriesTest {
+
+    private static final String[] PALETTE = {"#000000", "#ff0000"};
+
+    private static ChartSeries series(double... values) {
+        ChartSeries.Builder builder = new ChartSeries.Builder(PALETTE, values.length);
+        for (int i = 0; i < values.length; i++) {
+            builder.add(i + 1, "#" + (i + 1), 1000L * (i + 1), values[i], ChartSeries.COLOR);
+        }
+        return builder.build(false);
+    }
+
+    private static List<Integer> builds(ChartSeries series) {
+        List<Integer> builds = new ArrayList<>();
+        for (int i = 0; i < series.size(); i++) {
+            builds.add(series.getBuildNumber(i));
+        }
+        return builds;
+    }
+
+    @Test
+    public void builderReversesNewestFirstPoints() {
+        ChartSeries series = new ChartSeries.Builder(PALETTE, 0)
+                .add(3, "#3", 3000, 30, ChartSeries.COLOR)
+                .add(2, "#2", 2000, 20, ChartSeries.COLOR)
+                .add(1, "#1", 1000, 10, ChartSeries.COLOR_IN_RANGE_OF_WHITELISTED)
+                .build(true);
+        assertEquals(3, series.size());
+        assertEquals(1, series.getBuildNumber(0));
+        assertEquals(3000, series.getTimestamp(2));
+        assertEquals("#ff0000", series.getPointColor(0));
+        assertEquals("#000000", series.getPointColor(1));
+    }
+
+    @Test
+    public void shortSeriesIsNotDownsampled() {
+        ChartSeries series = series(1, 2, 3, 4, 5);
+        assertSame(series, series.downsample(5));
+        assertSame(series, series.downsample(100));
+        assertSame(series, series.downsample(0));
+    }
+
+    @Test
+    public void downsampleKeepsEndsAndExtremes() {
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i / 50.0);
+        }
+        values[500] = 10;
+        values[700] = -10;
+        ChartSeries downsampled = series(values).downsample(50);
+        List<Integer> builds = builds(downsampled);
+        assertTrue(downsampled.size() <= 50);
+        assertTrue(downsampled.size() >= 40);
+        assertEquals(Integer.valueOf(1), builds.get(0));
+        assertEquals(Integer.valueOf(1000), builds.get(builds.size() - 1));
+        assertTrue(builds.contains(501));
+        assertTrue(builds.contains(701));
+        for (int i = 1; i < builds.size(); i++) {
+            assertTrue(builds.get(i - 1) < builds.get(i));
+        }
+    }
+
+    @Test
+    public void downsampleKeepsPointsInRangeOfWhitelisted() {
+        ChartSeries.Builder builder = new ChartSeries.Builder(PALETTE, 200);
+        for (int i = 1; i <= 200; i++) {
+            builder.add(i, "#" + i, i, i % 7, i == 123 ? ChartSeries.COLOR_IN_RANGE_OF_WHITELISTED : ChartSeries.COLOR);
+        }
+        ChartSeries downsampled = builder.build(false).downsample(10);
+        assertTrue(builds(downsampled).contains(123));
+    }
+
+    @Test
+    public void downsampleKeepsLinearShape() {
+        double[] values = new double[300];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        ChartSeries downsampled = series(values).downsample(30);
+        for (int i = 0; i < downsampled.size(); i++) {
+            assertEquals(downsampled.getBuildNumber(i) - 1, downsampled.getValue(i), 0);
+        }
+    }
+
+    @Test
+    public void pointIsPlacedByBuildNumber() {
+        ChartSeries series = series(1, 2, 3).withoutBuild(2);
+        assertFalse(series.containsBuild(2));
+        series = series.withPoint(2, "#2", 2000, 2, ChartSeries.COLOR, 0);
+        assertEquals("[1, 2, 3]", builds(series).toString());
+        series = series.withPoint(4, "#4", 4000, 4, ChartSeries.COLOR, 0);
+        assertEquals("[1, 2, 3, 4]", builds(series).toString());
+        assertTrue(series.containsBuild(4));
+    }
+
+    @Test
+    public void limitDropsOldestPoint() {
+        ChartSeries series = series(1, 2, 3);
+        ChartSeries appended = series.withPoint(4, "#4", 4000, 4, ChartSeries.COLOR, 3);
+        assertEquals("[2, 3, 4]", builds(appended).toString());
+        //older than all kept points of full series
+        assertSame(appended, appended.withPoint(1, "#1", 1000, 1, ChartSeries.COLOR, 3));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CsvScannerTest {
+
+    private static final String JMH = "\"Benchmark\",\"Mode\",\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\",\"Unit\"\n"
+            + "\"org.Foo.bar\",\"thrpt\",1,5,1234.5,12.3,\"ops/s\"\n"
+            + "\"org.Foo.baz\",\"thrpt\",1,5,99.25,1.5,\"ops/s\"\n";
+
+    private static Map<String, String> scan(String csv, String... keys) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        new CsvScanner(Arrays.asList(keys)).scan(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), result);
+        return result;
+    }
+
+    @Test
+    public void selectsRowByValueOfQuotedColumn() throws IOException {
+        Map<String, String> result = scan(JMH, "Score[Benchmark=org.Foo.baz]", "Score Error (99.9%)[Benchmark=org.Foo.bar]");
+        assertEquals("99.25", result.get("Score[Benchmark=org.Foo.baz]"));
+        assertEquals("12.3", result.get("Score Error (99.9%)[Benchmark=org.Foo.bar]"));
+    }
+
+    @Test
+    public void quotedFieldsKeepSeparatorsQuotesAndNewLines() throws IOException {
+        String csv = "name,score\n"
+                + "\"a, \"\"b\"\"\",1.5\n"
+                + "\"two\nlines\",2.5\n"
+                + "plain,3.5\n";
+        Map<String, String> result = scan(csv, "score[name=a, \"b\"]", "score[name=plain]", "score[2]");
+        assertEquals("1.5", result.get("score[name=a, \"b\"]"));
+        assertEquals("3.5", result.get("score[name=plain]"));
+        //the field over two lines is one row
+        assertEquals("3.5", result.get("score[2]"));
+    }
+
+    @Test
+    public void firstRowWithoutSelector() throws IOException {
+        assertEquals("1234.5", scan(JMH, "Score").get("Score"));
+        assertEquals("1234.5", scan(JMH, "Score[0]").get("Score[0]"));
+        assertEquals("99.25", scan(JMH, "Score[1]").get("Score[1]"));
+    }
+
+    @Test
+    public void minusOneIsTheLastRow() throws IOException {
+        String csv = "name,score\na,1\nb,2\n\nc,3\n\n";
+        assertEquals("3", scan(csv, "score[-1]").get("score[-1]"));
+    }
+
+    @Test
+    public void lastRowWhichIsNotNumberGivesNothing() throws IOException {
+        String csv = "name,score\na,1\nb,n/a\n";
+        assertFalse(scan(csv, "score[-1]").containsKey("score[-1]"));
+    }
+
+    @Test
+    public void indexBelowMinusOneOrPastTheEndSelectsNothing() throws IOException {
+        Map<String, String> result = scan(JMH, "Score[-2]", "Score[2]", "Score[x]");
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void otherSeparatorsAndFormatPrefix() throws IOException {
+        assertEquals("2", scan("name;score\na;2\n", "score").get("score"));
+        assertEquals("3", scan("name\tscore\na\t3\n", "csv:score[name=a]").get("csv:score[name=a]"));
+    }
+
+    @Test
+    public void unknownColumnOrNotNumberGivesNothing() throws IOException {
+        Map<String, String> result = scan(JMH, "Missing", "Unit", "Score[Benchmark=org.Foo.none]");
+        assertEquals(0, result.size());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JsonScannerTest {
+
+    private static final String JMH = "[\n"
+            + "  {\"benchmark\": \"org.Foo.bar\", \"mode\": \"thrpt\", \"primaryMetric\": {\"score\": 1234.5, \"scorePercentiles\": {\"50.0\": 1200}}},\n"
+            + "  {\"benchmark\": \"org.Foo.baz\", \"mode\": \"thrpt\", \"primaryMetric\": {\"score\": 99.25, \"scoreUnit\": \"ops/s\"}}\n"
+            + "]\n";
+
+    private static Map<String, String> scan(String json, String... keys) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        new JsonScanner(Arrays.asList(keys)).scan(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), result);
+        return result;
+    }
+
+    @Test
+    public void nestedPathsAndArrayIndexes() throws IOException {
+        Map<String, String> result = scan(JMH, "/0/primaryMetric/score", "/1/primaryMetric/score", "/0/primaryMetric/scorePercentiles/50.0");
+        assertEquals("1234.5", result.get("/0/primaryMetric/score"));
+        assertEquals("99.25", result.get("/1/primaryMetric/score"));
+        assertEquals("1200", result.get("/0/primaryMetric/scorePercentiles/50.0"));
+    }
+
+    @Test
+    public void elementSelectedByItsField() throws IOException {
+        String key = "json:/[benchmark=org.Foo.baz]/primaryMetric/score";
+        assertEquals("99.25", scan(JMH, key).get(key));
+    }
+
+    @Test
+    public void escapesInNamesAndPointers() throws IOException {
+        String json = "{\"a/b\": {\"c~d\": 1}, \"q\\\"uote\": 2, \"\\u0041\": 3, \"tab\\there\": 4}";
+        Map<String, String> result = scan(json, "/a~1b/c~0d", "/q\"uote", "/A", "/tab\there");
+        assertEquals("1", result.get("/a~1b/c~0d"));
+        assertEquals("2", result.get("/q\"uote"));
+        assertEquals("3", result.get("/A"));
+        assertEquals("4", result.get("/tab\there"));
+    }
+
+    @Test
+    public void skipsStringsWithBracketsAndOtherBranches() throws IOException {
+        String json = "{\"s\": \"}{][\\\",\", \"deep\": [[1, 2], {\"x\": [true, null]}], \"v\": -5.5e2}";
+        assertEquals("-5.5e2", scan(json, "/v").get("/v"));
+    }
+
+    @Test
+    public void stringWithNumberIsValueOtherStringsAreNot() throws IOException {
+        Map<String, String> result = scan("{\"n\": \"7\", \"s\": \"seven\", \"b\": true, \"o\": {}}", "/n", "/s", "/b", "/o");
+        assertEquals("7", result.get("/n"));
+        assertFalse(result.containsKey("/s"));
+        assertFalse(result.containsKey("/b"));
+        assertFalse(result.containsKey("/o"));
+    }
+
+    @Test
+    public void missingPathGivesNothing() throws IOException {
+        Map<String, String> result = scan(JMH, "/2/primaryMetric/score", "/[benchmark=org.Foo.none]/primaryMetric/score", "/0/secondaryMetrics");
+        assertEquals(0, result.size());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PropertiesScannerTest {
+
+    private static Map<String, String> scan(String properties, String... keys) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        new PropertiesScanner(Arrays.asList(keys)).scan(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)), result);
+        return result;
+    }
+
+    @Test
+    public void bothDelimitersAndTrimming() throws IOException {
+        Map<String, String> result = scan("a=1\n  b  :  2.5  \r\nc = -3\r\n", "a", "b", "c");
+        assertEquals("1", result.get("a"));
+        assertEquals("2.5", result.get("b"));
+        assertEquals("-3", result.get("c"));
+    }
+
+    @Test
+    public void firstValidValueWins() throws IOException {
+        assertEquals("3", scan("a=x\na=\na=3\na=4\n", "a").get("a"));
+    }
+
+    @Test
+    public void firstDelimiterEndsTheKey() throws IOException {
+        Map<String, String> result = scan("a:b=5\nc=d:6\n", "a", "a:b", "c");
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void lastLineWithoutNewLine() throws IOException {
+        assertEquals("7", scan("x=1\na=7", "a").get("a"));
+    }
+
+    @Test
+    public void valueBeyondTheBuffer() throws IOException {
+        StringBuilder properties = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            properties.append("filler.key.").append(i).append("=").append(i).append('\n');
+        }
+        properties.append("wanted=42\n");
+        assertEquals("42", scan(properties.toString(), "wanted").get("wanted"));
+    }
+
+    @Test
+    public void formatPrefixIsKeptInResult() throws IOException {
+        assertEquals("1", scan("a=1\n", "properties:a").get("properties:a"));
+    }
+
+    @Test
+    public void prefixPatternCollectsFirstValueOfEachKey() throws IOException {
+        String key = "prefix:t.";
+        Map<String, String> values = KeyPattern.decode(scan("t.x=1\nt.y=2\nu=3\nt.x=9\nt.z=n/a\n", key).get(key));
+        assertEquals(2, values.size());
+        assertEquals("1", values.get("t.x"));
+        assertEquals("2", values.get("t.y"));
+    }
+
+    @Test
+    public void regexPattern() throws IOException {
+        String key = "regex:t\\.[xz]";
+        Map<String, String> values = KeyPattern.decode(scan("t.x=1\nt.y=2\nt.z=3\nt.zz=4\n", key).get(key));
+        assertEquals(2, values.size());
+        assertEquals("1", values.get("t.x"));
+        assertEquals("3", values.get("t.z"));
+    }
+
+    @Test
+    public void invalidRegexOrNoMatchGivesNothing() throws IOException {
+        Map<String, String> result = scan("t.x=1\n", "regex:t\\.[", "prefix:u.");
+        assertFalse(result.containsKey("regex:t\\.["));
+        assertFalse(result.containsKey("prefix:u."));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ReportValuesExtractorTest {
+
+    @Rule
+    public TemporaryFolder build = new TemporaryFolder();
+
+    private Path write(String name, String content) throws IOException {
+        Path file = build.getRoot().toPath().resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Map<ValueKey, String> find(BuildDirectoryWalker walker, ValueKey... keys) {
+        return new ReportValuesExtractor(walker).findValues(build.getRoot().toPath(), Arrays.asList(keys));
+    }
+
+    @Test
+    public void keysOfDifferentFormatsInOneFile() throws IOException {
+        //the first line is a property, and also the header of a one column csv
+        write("report.txt", "a=1\n2\n3\n");
+        ValueKey property = new ValueKey("report.txt", "a");
+        ValueKey lastRow = new ValueKey("report.txt", "csv:a=1[-1]");
+        Map<ValueKey, String> values = find(new BuildDirectoryWalker(null), property, lastRow);
+        assertEquals("1", values.get(property));
+        assertEquals("3", values.get(lastRow));
+    }
+
+    @Test
+    public void eachGlobReadsItsFiles() throws IOException {
+        write("reports/a.properties", "score=1\n");
+        write("reports/b.json", "{\"score\": 2}");
+        write("other/c.csv", "name,score\nx,3\n");
+        ValueKey properties = new ValueKey("a.properties", "score");
+        ValueKey json = new ValueKey("*.json", "/score");
+        ValueKey csv = new ValueKey("other/*.csv", "score[name=x]");
+        Map<ValueKey, String> values = find(new BuildDirectoryWalker(null), properties, json, csv);
+        assertEquals("1", values.get(properties));
+        assertEquals("2", values.get(json));
+        assertEquals("3", values.get(csv));
+    }
+
+    @Test
+    public void excludedDirectoriesAreNotRead() throws IOException {
+        write("archive/a.properties", "score=1\n");
+        ValueKey key = new ValueKey("a.properties", "score");
+        assertEquals("1", find(new BuildDirectoryWalker(null), key).get(key));
+        assertFalse(find(new BuildDirectoryWalker("archive"), key).containsKey(key));
+    }
+
+    @Test
+    public void gzippedFilesAndArchiveEntries() throws IOException {
+        File gzipped = new File(build.getRoot(), "g.properties.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped.toPath()))) {
+            out.write("gz=4\n".getBytes(StandardCharsets.UTF_8));
+        }
+        File zip = new File(build.getRoot(), "reports.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip.toPath()))) {
+            out.putNextEntry(new ZipEntry("inner/z.json"));
+            out.write("{\"z\": 5}".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        ValueKey gz = new ValueKey("g.properties.gz", "gz");
+        ValueKey entry = new ValueKey("z.json", "/z");
+        Map<ValueKey, String> values = find(new BuildDirectoryWalker(null, true), gz, entry);
+        assertEquals("4", values.get(gz));
+        assertEquals("5", values.get(entry));
+        assertFalse(find(new BuildDirectoryWalker(null, false), entry).containsKey(entry));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 user.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.report.genericchart;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WeightedLruTest {
+
+    private final List<String> evicted = new ArrayList<>();
+    private long maxWeight = 10;
+
+    private WeightedLru<String> lru() {
+        return new WeightedLru<>(() -> maxWeight, () -> 0);
+    }
+
+    private void put(WeightedLru<String> lru, String key, long weight) {
+        lru.put(key, weight, () -> evicted.add(key));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvictedOverLimit() {
+        WeightedLru<String> lru = lru();
+        put(lru, "a", 4);
+        put(lru, "b", 4);
+        lru.touch("a");
+        put(lru, "c", 4);
+        assertEquals("[b]", evicted.toString());
+        assertEquals(8, lru.getWeight());
+        assertEquals(2, lru.size());
+        assertEquals(1, lru.getEvictions());
+    }
+
+    @Test
+    public void replacedEntryChangesWeight() {
+        WeightedLru<String> lru = lru();
+        put(lru, "a", 4);
+        put(lru, "a", 6);
+        assertEquals(6, lru.getWeight());
+        assertEquals(1, lru.size());
+        assertEquals("[]", evicted.toString());
+    }
+
+    @Test
+    public void removedEntryIsNotEvicted() {
+        WeightedLru<String> lru = lru();
+        put(lru, "a", 4);
+        lru.remove("a");
+        put(lru, "b", 10);
+        assertEquals(10, lru.getWeight());
+        assertEquals("[]", evicted.toString());
+    }
+
+    @Test
+    public void entryHeavierThanLimitIsEvictedAtOnce() {
+        WeightedLru<String> lru = lru();
+        put(lru, "a", 2);
+        put(lru, "huge", 11);
+        assertEquals("[a, huge]", evicted.toString());
+        assertEquals(0, lru.getWeight());
+    }
+
+    @Test
+    public void lowerLimitAppliesOnEvict() {
+        WeightedLru<String> lru = lru();
+        put(lru, "a", 4);
+        put(lru, "b", 4);
+        maxWeight = 5;
+        lru.evict();
+        assertEquals("[a]", evicted.toString());
+    }
+
+    @Test
+    public void clearTellsTheOwners() {
+        WeightedLru<String> lru = lru();
+        put(lru, "a", 1);
+        put(lru, "b", 1);
+        lru.clear();
+        assertEquals("[a, b]", evicted.toString());
+        assertEquals(0, lru.getWeight());
+        assertEquals(0, lru.size());
+    }
+}